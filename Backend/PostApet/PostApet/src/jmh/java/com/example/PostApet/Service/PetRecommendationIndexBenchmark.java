@@ -0,0 +1,103 @@
+package com.example.PostApet.Service;
+
+import com.example.PostApet.Model.PetModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Neighbour list costs of {@link PetRecommendationIndex} for one species of
+ * {@code pets} approved pets with seeded random features:
+ * <ul>
+ *     <li>rebuild: load the species and compute every pet's neighbour list, as
+ *     startup does once the catalog has been replayed;</li>
+ *     <li>update: save one changed pet into the loaded species and read its list
+ *     back, as an edit followed by a detail page view does.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PetRecommendationIndexBenchmark {
+
+    private static final String[] BREEDS = {"Labrador", "Beagle", "Poodle", "Boxer", "Husky", "Pug", "Collie", "Mixed"};
+    private static final String[] SIZES = {"Small", "Medium", "Large"};
+    private static final String[] GENDERS = {"Male", "Female"};
+    private static final String[] VACCINATIONS = {"Vaccinated", "Partially vaccinated", "Not vaccinated"};
+    private static final String[] BEHAVIORS = {"friendly", "calm", "playful", "shy", "energetic", "good with kids",
+            "good with cats", "house trained", "leash trained", "needs space"};
+
+    @Param({"1000", "5000"})
+    private int pets;
+
+    private List<PetModel> species;
+    private PetRecommendationIndex warm;
+    private Random random;
+    private long next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        random = new Random(42);
+        species = new ArrayList<>(pets);
+        for (long id = 1; id <= pets; id++) {
+            species.add(pet(id));
+        }
+        warm = load();
+    }
+
+    @Benchmark
+    public PetRecommendationIndex rebuild() {
+        return load();
+    }
+
+    @Benchmark
+    public List<Long> update() {
+        long id = next++ % pets + 1;
+        warm.onPetSaved(pet(id));
+        return warm.similarTo(id, PetRecommendationIndex.K);
+    }
+
+    private PetRecommendationIndex load() {
+        PetRecommendationIndex index = new PetRecommendationIndex();
+        species.forEach(index::onPetSaved);
+        index.onCatalogLoaded();
+        return index;
+    }
+
+    private PetModel pet(long id) {
+        PetModel pet = new PetModel();
+        pet.setId(id);
+        pet.setSpecie("Dog");
+        pet.setRegStatus("Approved");
+        pet.setAvailable(true);
+        pet.setBreed(pick(BREEDS));
+        pet.setSize(pick(SIZES));
+        pet.setGender(pick(GENDERS));
+        pet.setAge(random.nextInt(180) + " months");
+        pet.setAdoptionFee((double) random.nextInt(4) * 7500);
+        pet.setVaccinationStatus(pick(VACCINATIONS));
+        pet.setBehavior(pick(BEHAVIORS) + ", " + pick(BEHAVIORS));
+        return pet;
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.PostApet.Service;
+
+import com.example.PostApet.Model.PetModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PetSearchIndex} against the LIKE path it replaced, on 1M synthetic
+ * approved pets:
+ * <ul>
+ *     <li>index: BM25 search for an exact term, a prefix still being typed and a
+ *     misspelling;</li>
+ *     <li>likeScan: the per-row work of lower(petName|breed|location) LIKE
+ *     '%term%', which no index serves, so MySQL evaluates it on every row. The
+ *     rows are already in memory here, which makes it a lower bound on the
+ *     Specification path: the real query also reads the whole table.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class PetSearchBenchmark {
+
+    private static final int PETS = 1_000_000;
+    private static final String[] NAMES = {"Max", "Bella", "Charlie", "Luna", "Rocky", "Daisy", "Milo", "Coco",
+            "Buddy", "Lucy", "Oscar", "Molly", "Simba", "Nala", "Leo", "Rex", "Shadow", "Ginger", "Tiger", "Snowy"};
+    private static final String[] BREEDS = {"Labrador", "Labradoodle", "Beagle", "Poodle", "Boxer", "Husky", "Pug",
+            "Collie", "Persian", "Siamese", "Maine Coon", "Bengal", "Mixed"};
+    private static final String[] LOCATIONS = {"Colombo", "Kandy", "Galle", "Jaffna", "Negombo", "Matara",
+            "Kurunegala", "Anuradhapura", "Ratnapura", "Badulla"};
+    private static final String[] COLORS = {"black", "white", "brown", "golden", "grey", "spotted", "striped"};
+    private static final String[] BEHAVIORS = {"friendly", "calm", "playful", "shy", "energetic", "gentle"};
+
+    @Param({"labrador", "lab", "labrdor"})
+    private String term;
+
+    private PetSearchIndex index;
+    private String[][] rows;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        index = new PetSearchIndex();
+        rows = new String[PETS][];
+        for (int i = 0; i < PETS; i++) {
+            PetModel pet = new PetModel();
+            pet.setId(i + 1);
+            pet.setRegStatus("Approved");
+            pet.setPetName(pick(random, NAMES));
+            pet.setBreed(pick(random, BREEDS));
+            pet.setLocation(pick(random, LOCATIONS));
+            pet.setColorMarkings(pick(random, COLORS));
+            pet.setBehavior(pick(random, BEHAVIORS) + " and " + pick(random, BEHAVIORS));
+            index.onPetSaved(pet);
+            rows[i] = new String[]{pet.getPetName(), pet.getBreed(), pet.getLocation()};
+        }
+        index.onCatalogLoaded();
+    }
+
+    @Benchmark
+    public List<Long> index() {
+        return index.search(term);
+    }
+
+    @Benchmark
+    public int likeScan() {
+        String pattern = term.toLowerCase();
+        int matches = 0;
+        for (String[] row : rows) {
+            if (row[0].toLowerCase().contains(pattern)
+                    || row[1].toLowerCase().contains(pattern)
+                    || row[2].toLowerCase().contains(pattern)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
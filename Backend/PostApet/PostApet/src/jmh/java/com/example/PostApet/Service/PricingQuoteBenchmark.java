@@ -0,0 +1,102 @@
+package com.example.PostApet.Service;
+
+import com.example.PostApet.Model.PetModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The POST /api/v1/pets/quotes loop for {@code pets} listings, with the shipped
+ * pricing.* settings. Read the time together with gc.alloc.rate.norm, which the
+ * benchmarks profile's default gc profiler reports:
+ * <ul>
+ *     <li>batch: {@link PetService#quotePets}'s work once the rows are fetched,
+ *     filling a {@link PricingEngine.Batch} from the (id, ageMonths, specie,
+ *     discount, adoptionFeeFree) rows and pricing it; allocates the batch's
+ *     arrays and nothing per pet;</li>
+ *     <li>priceOnly: {@link PricingEngine#price(PricingEngine.Batch)} on a filled
+ *     batch, which allocates nothing;</li>
+ *     <li>perEntity: {@link PricingEngine#price(PetModel)} on each listing, as
+ *     quoting through the entities would, boxing two Doubles per pet.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PricingQuoteBenchmark {
+
+    private static final String[] SPECIES = {"Dog", "Cat", "Rabbit", "Bird"};
+
+    @Param({"100", "10000"})
+    private int pets;
+
+    private PricingEngine engine;
+    private Object[][] rows;
+    private PetModel[] entities;
+    private PricingEngine.Batch filled;
+
+    @Setup
+    public void setUp() {
+        engine = new PricingEngine(List.of("1:20000", "6:60000", "12:100000"), 10000, List.of(), 100);
+        Random random = new Random(42);
+        rows = new Object[pets][];
+        entities = new PetModel[pets];
+        filled = engine.newBatch(pets);
+        for (int i = 0; i < pets; i++) {
+            int ageMonths = random.nextInt(180);
+            String specie = SPECIES[random.nextInt(SPECIES.length)];
+            double discount = random.nextInt(5) * 10;
+            boolean feeFree = random.nextInt(10) == 0;
+            rows[i] = new Object[]{(long) i + 1, ageMonths, specie, discount, feeFree};
+
+            PetModel pet = new PetModel();
+            pet.setId(i + 1);
+            pet.setAge(ageMonths + " months");
+            pet.setSpecie(specie);
+            pet.setDiscount(discount);
+            pet.setAdoptionFeeFree(feeFree);
+            entities[i] = pet;
+
+            filled.add(i + 1, ageMonths, specie, discount, feeFree);
+        }
+    }
+
+    @Benchmark
+    public PricingEngine.Batch batch() {
+        PricingEngine.Batch batch = engine.newBatch(rows.length);
+        for (Object[] row : rows) {
+            batch.add((Long) row[0], (Integer) row[1], (String) row[2], (Double) row[3], (Boolean) row[4]);
+        }
+        engine.price(batch);
+        return batch;
+    }
+
+    @Benchmark
+    public PricingEngine.Batch priceOnly() {
+        engine.price(filled);
+        return filled;
+    }
+
+    @Benchmark
+    public PetModel[] perEntity() {
+        for (PetModel pet : entities) {
+            engine.price(pet);
+        }
+        return entities;
+    }
+}
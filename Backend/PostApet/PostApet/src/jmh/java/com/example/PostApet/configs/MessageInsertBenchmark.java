@@ -0,0 +1,178 @@
+package com.example.PostApet.configs;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to insert 100k messages, with the statements Hibernate sends for each id
+ * strategy:
+ * <ul>
+ *     <li>identity (before): every INSERT runs on its own so the generated key
+ *     can be read back, one round trip per message;</li>
+ *     <li>pooled (after): one id_generators round trip per block of
+ *     {@link IdGeneratorSeeder#ALLOCATION_SIZE} ids, on its own connection and
+ *     transaction as the table generator does, and the INSERTs go out in JDBC
+ *     batches of hibernate.jdbc.batch_size, which rewriteBatchedStatements turns
+ *     into multi-row INSERTs.</li>
+ * </ul>
+ * Both commit every 1000 messages. Rows go to jmh_messages, a copy of messages
+ * with its indexes but without the foreign keys, dropped afterwards.
+ * <p>
+ * Needs a migrated MySQL database, taken from SPRING_DATASOURCE_URL,
+ * SPRING_DATASOURCE_USERNAME and SPRING_DATASOURCE_PASSWORD (the forked JVMs
+ * inherit the environment). The score is milliseconds per 100k messages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MessageInsertBenchmark {
+
+    private static final int MESSAGES = 100_000;
+    private static final int TRANSACTION_SIZE = 1000;
+    // spring.jpa.properties.hibernate.jdbc.batch_size
+    private static final int BATCH_SIZE = 50;
+    private static final String COLUMNS = "sender_id, receiver_id, pet_id, content, timestamp, is_read";
+
+    private Connection connection;
+    private Connection generatorConnection;
+
+    @Setup(Level.Trial)
+    public void connect() throws SQLException {
+        connection = open();
+        generatorConnection = open();
+        generatorConnection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS jmh_messages LIKE messages");
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void reset() throws SQLException {
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE TABLE jmh_messages");
+            statement.execute("INSERT INTO id_generators (sequence_name, next_val) VALUES ('jmh_messages', 1) "
+                    + "ON DUPLICATE KEY UPDATE next_val = 1");
+        }
+        connection.setAutoCommit(false);
+    }
+
+    @TearDown(Level.Trial)
+    public void drop() throws SQLException {
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS jmh_messages");
+            statement.execute("DELETE FROM id_generators WHERE sequence_name = 'jmh_messages'");
+        }
+        generatorConnection.close();
+        connection.close();
+    }
+
+    @Benchmark
+    public long identity() throws SQLException {
+        long last = 0;
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO jmh_messages (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < MESSAGES; i++) {
+                bind(insert, 1, i);
+                insert.executeUpdate();
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    keys.next();
+                    last = keys.getLong(1);
+                }
+                if ((i + 1) % TRANSACTION_SIZE == 0) {
+                    connection.commit();
+                }
+            }
+        }
+        connection.commit();
+        return last;
+    }
+
+    @Benchmark
+    public long pooled() throws SQLException {
+        long next = 0;
+        long limit = 0;
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO jmh_messages (id, " + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < MESSAGES; i++) {
+                if (next == limit) {
+                    next = allocate();
+                    limit = next + IdGeneratorSeeder.ALLOCATION_SIZE;
+                }
+                insert.setLong(1, next++);
+                bind(insert, 2, i);
+                insert.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+                if ((i + 1) % TRANSACTION_SIZE == 0) {
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        return next;
+    }
+
+    // The table generator's read-and-advance of one block, in its own transaction
+    private long allocate() throws SQLException {
+        long value;
+        try (PreparedStatement select = generatorConnection.prepareStatement(
+                "SELECT next_val FROM id_generators WHERE sequence_name = 'jmh_messages' FOR UPDATE");
+             ResultSet row = select.executeQuery()) {
+            row.next();
+            value = row.getLong(1);
+        }
+        try (PreparedStatement update = generatorConnection.prepareStatement(
+                "UPDATE id_generators SET next_val = ? WHERE next_val = ? AND sequence_name = 'jmh_messages'")) {
+            update.setLong(1, value + IdGeneratorSeeder.ALLOCATION_SIZE);
+            update.setLong(2, value);
+            update.executeUpdate();
+        }
+        generatorConnection.commit();
+        return value;
+    }
+
+    private static void bind(PreparedStatement insert, int first, int i) throws SQLException {
+        insert.setLong(first, 1 + i % 50);
+        insert.setLong(first + 1, 51 + i % 50);
+        insert.setLong(first + 2, 1 + i % 200);
+        insert.setString(first + 3, "Is this pet still available? (" + i + ")");
+        insert.setTimestamp(first + 4, Timestamp.valueOf(LocalDateTime.now()));
+        insert.setBoolean(first + 5, false);
+    }
+
+    private static Connection open() throws SQLException {
+        return DriverManager.getConnection(
+                Objects.requireNonNullElse(System.getenv("SPRING_DATASOURCE_URL"),
+                        "jdbc:mysql://localhost:3306/posturpet?rewriteBatchedStatements=true"),
+                Objects.requireNonNullElse(System.getenv("SPRING_DATASOURCE_USERNAME"), "root"),
+                System.getenv("SPRING_DATASOURCE_PASSWORD"));
+    }
+}
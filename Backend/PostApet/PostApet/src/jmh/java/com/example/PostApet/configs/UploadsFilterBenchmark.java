@@ -0,0 +1,144 @@
+package com.example.PostApet.configs;
+
+import com.example.PostApet.Service.FileStorageService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.HttpRequestHandler;
+import org.springframework.web.context.support.GenericWebApplicationContext;
+import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.handler.AbstractHandlerMapping;
+import org.springframework.web.util.ServletRequestPathUtils;
+
+import jakarta.servlet.ServletContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /uploads/ through {@link UploadsFilter} against the Spring MVC resource
+ * handler that {@link WebMvcConfig} sets up (file.direct-serving=false), for a
+ * 256KB photo requested whole, revalidated (304) and as a 64KB range.
+ * <p>
+ * Both run in process on mock requests: this is each path's own work, from the
+ * handler lookup to the last body byte. Over a socket the filter also skips the
+ * rest of the filter chain and hands large bodies to sendfile, which this does
+ * not show.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UploadsFilterBenchmark {
+
+    private static final String URL = "/uploads/pet-images/1/photo.jpg";
+    private static final int SIZE = 256 * 1024;
+
+    @Param({"full", "notModified", "range"})
+    private String request;
+
+    private Path root;
+    private UploadsFilter filter;
+    private AbstractHandlerMapping resourceMapping;
+    private String lastModified;
+
+    @Setup
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("uploads-benchmark");
+        Path photo = root.resolve("pet-images/1/photo.jpg");
+        Files.createDirectories(photo.getParent());
+        byte[] bytes = new byte[SIZE];
+        new Random(42).nextBytes(bytes);
+        Files.write(photo, bytes);
+        lastModified = DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                Files.getLastModifiedTime(photo).toInstant().atZone(ZoneOffset.UTC));
+
+        FileStorageService fileStorageService = new FileStorageService(root.toString(), false,
+                DataSize.ofMegabytes(10), 10000, 40_000_000L, null, null);
+        filter = new UploadsFilter(fileStorageService);
+
+        MockServletContext servletContext = new MockServletContext();
+        GenericWebApplicationContext context = new GenericWebApplicationContext(servletContext);
+        context.refresh();
+        WebMvcConfig config = new WebMvcConfig(fileStorageService);
+        ReflectionTestUtils.setField(config, "uploadDir", root.toString());
+        Registry registry = new Registry(context, servletContext);
+        config.addResourceHandlers(registry);
+        resourceMapping = registry.handlerMapping();
+        resourceMapping.setApplicationContext(context);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(root);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse uploadsFilter() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(), response, new MockFilterChain());
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse resourceHandler() throws Exception {
+        MockHttpServletRequest request = request();
+        ServletRequestPathUtils.parseAndCache(request); // as DispatcherServlet does before the lookup
+        HandlerExecutionChain chain = resourceMapping.getHandler(request);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        for (HandlerInterceptor interceptor : chain.getInterceptorList()) {
+            interceptor.preHandle(request, response, chain.getHandler()); // exposes the path within the mapping
+        }
+        ((HttpRequestHandler) chain.getHandler()).handleRequest(request, response);
+        return response;
+    }
+
+    private MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", URL);
+        switch (this.request) {
+            case "notModified" -> request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+            case "range" -> request.addHeader(HttpHeaders.RANGE, "bytes=65536-131071");
+            default -> {
+            }
+        }
+        return request;
+    }
+
+    // The handler mapping WebMvcConfigurationSupport would build from the registry
+    private static class Registry extends ResourceHandlerRegistry {
+        Registry(ApplicationContext context, ServletContext servletContext) {
+            super(context, servletContext);
+        }
+
+        AbstractHandlerMapping handlerMapping() {
+            return getHandlerMapping();
+        }
+    }
+}
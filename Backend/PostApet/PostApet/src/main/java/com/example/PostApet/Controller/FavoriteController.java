@@ -2,15 +2,16 @@ package com.example.PostApet.Controller;
 
 import com.example.PostApet.Model.User;
 import com.example.PostApet.Service.FavoriteService;
-import com.example.PostApet.dto.PetDto;
+import com.example.PostApet.dto.PetFields;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/v1/favorites")
@@ -23,9 +24,18 @@ public class FavoriteController {
     }
 
     @GetMapping
-    public ResponseEntity<List<PetDto>> getUserFavorites(Authentication authentication) {
+    public ResponseEntity<MappingJacksonValue> getUserFavorites(
+            Authentication authentication,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String view) {
+        Set<String> selected;
+        try {
+            selected = PetFields.parse(fields, view);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
         Long userId = ((User) authentication.getPrincipal()).getId();
-        return ResponseEntity.ok(favoriteService.getUserFavorites(userId));
+        return ResponseEntity.ok(PetFields.filter(favoriteService.getUserFavorites(userId, selected), selected));
     }
 
     @PostMapping("/{petId}")
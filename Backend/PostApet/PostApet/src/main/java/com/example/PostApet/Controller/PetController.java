@@ -1,31 +1,57 @@
 package com.example.PostApet.Controller;
 
 import com.example.PostApet.Model.PetModel;
-import com.example.PostApet.Model.Species;
 import com.example.PostApet.Model.User;
 import com.example.PostApet.Repository.SpeciesRepository;
 import com.example.PostApet.Repository.UserRepository;
+import com.example.PostApet.Service.CatalogVersion;
 import com.example.PostApet.Service.FileStorageService;
+import com.example.PostApet.Service.ImagePipeline;
+import com.example.PostApet.Service.MultipartFormReader;
+import com.example.PostApet.Service.PetExportService;
+import com.example.PostApet.Service.PetImportService;
 import com.example.PostApet.Service.PetService;
+import com.example.PostApet.Service.PricingEngine;
+import com.example.PostApet.Service.ResumableUploadService;
 import com.example.PostApet.Service.EmailService;
+import com.example.PostApet.dto.BulkStatusRequest;
+import com.example.PostApet.dto.ImportJobDto;
 import com.example.PostApet.dto.PetDto;
+import com.example.PostApet.dto.PetFields;
+import com.example.PostApet.dto.PetPageDto;
+import com.example.PostApet.dto.PetRangeFilter;
 import com.example.PostApet.dto.QuizRequest;
 import com.example.PostApet.dto.UserDto;
+import com.example.PostApet.util.ConditionalRequests;
+import com.example.PostApet.util.CursorUtil;
+import com.example.PostApet.util.Gazetteer;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.core.io.Resource; // Correct import
 // Remove jakarta.annotation.Resource
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
+import jakarta.servlet.http.HttpServletRequest;
+
 import java.io.IOException;
+import java.net.URI;
 import java.security.Principal;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @RestController
@@ -33,13 +59,29 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = "http://localhost:3000")
 public class PetController {
 
+    private static final double MAX_RADIUS_KM = 500;
+
     private final PetService petService;
     private final UserRepository userRepository;
     private final FileStorageService fileStorageService;
     private final SpeciesRepository speciesRepository;
     private final EmailService emailService;
-    public PetController(PetService petService, UserRepository userRepository, FileStorageService fileStorageService, SpeciesRepository speciesRepository, EmailService emailService) {
+    private final ObjectMapper objectMapper;
+    private final CatalogVersion catalogVersion;
+    private final PetImportService petImportService;
+    private final PetExportService petExportService;
+    private final ImagePipeline imagePipeline;
+    private final ResumableUploadService resumableUploadService;
+    private final MultipartFormReader multipartFormReader;
+    public PetController(PetService petService, UserRepository userRepository, FileStorageService fileStorageService, SpeciesRepository speciesRepository, EmailService emailService, ObjectMapper objectMapper, CatalogVersion catalogVersion, PetImportService petImportService, PetExportService petExportService, ImagePipeline imagePipeline, ResumableUploadService resumableUploadService, MultipartFormReader multipartFormReader) {
         this.petService = petService;
+        this.multipartFormReader = multipartFormReader;
+        this.resumableUploadService = resumableUploadService;
+        this.imagePipeline = imagePipeline;
+        this.petExportService = petExportService;
+        this.petImportService = petImportService;
+        this.catalogVersion = catalogVersion;
+        this.objectMapper = objectMapper;
         this.userRepository = userRepository;
         this.fileStorageService = fileStorageService;
         this.speciesRepository = speciesRepository;
@@ -47,70 +89,83 @@ public class PetController {
     }
 
 
+    /**
+     * POST /add as multipart/form-data. The photo part is stored as it arrives,
+     * before the listing exists, so it is filed under pet-images/uploads as a
+     * resumable upload is.
+     */
     @PostMapping(value = "/add", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<String> addPet(
-            @RequestParam(value = "petName") String petName,
-            @RequestParam(value = "specie") String specie,
-            @RequestParam(value = "breed") String breed,
-            @RequestParam(value = "location") String location,
-            @RequestParam(value = "age") String age,
-            @RequestParam(value = "gender") String gender,
-            @RequestParam(value = "reason") String reason,
-            @RequestParam(value = "ifTemp") String ifTemp,
-            @RequestParam(value = "justify") String justify,
-            @RequestParam(value = "vaccinationStatus") String vaccinationStatus,
-            @RequestParam(value = "colorMarkings") String colorMarkings,
-            @RequestParam(value = "size") String size,
-            @RequestParam(value = "spayedNeutered") boolean spayedNeutered,
-            @RequestParam(value = "medicalHistory") String medicalHistory,
-            @RequestParam(value = "behavior") String behavior,
-            @RequestParam(value = "specialNeeds") String specialNeeds,
-            @RequestParam(value = "adoptionFee") double adoptionFee,
-            @RequestParam(value = "adoptionFeeFree") boolean adoptionFeeFree,
-            @RequestParam(value = "photo", required = false) MultipartFile photo,
-            Principal principal) throws IOException {
+    public ResponseEntity<String> addPet(HttpServletRequest request, Principal principal) throws IOException {
 
         // Get current user
         String email = principal.getName();
         User user = userRepository.findFirstByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        // Create new pet
-        PetModel petModel = new PetModel();
-        petModel.setPetName(petName);
-        petModel.setSpecie(specie);
-        petModel.setBreed(breed);
-        petModel.setLocation(location);
-        petModel.setAge(age);
-        petModel.setGender(gender);
-        petModel.setReason(reason);
-        petModel.setIfTemp(ifTemp);
-        petModel.setJustify(justify);
-        petModel.setUser(user);
-        petModel.setVaccinationStatus(vaccinationStatus);
-        petModel.setColorMarkings(colorMarkings);
-        petModel.setSize(size);
-        petModel.setSpayedNeutered(spayedNeutered);
-        petModel.setMedicalHistory(medicalHistory);
-        petModel.setBehavior(behavior);
-        petModel.setSpecialNeeds(specialNeeds);
-        petModel.setAdoptionFee(adoptionFeeFree ? 0 : adoptionFee);
-        petModel.setAdoptionFeeFree(adoptionFeeFree);
-
-        // Auto-fill user's contact information
-        petModel.setContactEmail(user.getEmail());
-        petModel.setContactPhoneNumber(user.getPhone());
-        petModel.setOwnerName(user.getName());
-        petModel.setNic(user.getNic());
-
-        // First save the pet to generate an ID
-        PetModel savedPet = petService.savePet(petModel);
-
-        // Now handle photo upload with the actual pet ID
-        if (photo != null && !photo.isEmpty()) {
-            String photoPath = fileStorageService.store(photo, "pet-images/" + savedPet.getId());
+        Map<String, String> values = multipartFormReader.read(request, Set.of("photo"), "pet-images/uploads");
+        String photo = values.remove("photo");
+        PetModel petModel;
+        try {
+            petModel = petImportService.toPet(values, user);
+        } catch (IllegalArgumentException e) {
+            fileStorageService.delete(photo);
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        return publishPet(petModel, user, photo == null ? null : storedPhoto(photo));
+    }
+
+    /**
+     * POST /add as JSON, with the same fields; the photo is a finished resumable
+     * upload (see UploadController) named by photoUploadId instead of a multipart part.
+     */
+    @PostMapping(value = "/add", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> addPetJson(@RequestBody Map<String, Object> body, Principal principal) throws IOException {
+        User user = userRepository.findFirstByEmail(principal.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        Map<String, String> values = new HashMap<>();
+        body.forEach((field, value) -> values.put(field, value != null ? value.toString() : null));
+        String photoUploadId = values.remove("photoUploadId");
+        PetModel petModel;
+        try {
+            petModel = petImportService.toPet(values, user);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        return publishPet(petModel, user, photoUploadId == null ? null
+                : petId -> resumableUploadService.claim(photoUploadId, user.getId()));
+    }
+
+    // Saves the listing first so the photo can be filed under its id; a rejected photo takes the listing with it
+    private ResponseEntity<String> publishPet(PetModel petModel, User user, PhotoSource photo) throws IOException {
+        PetModel savedPet;
+        try {
+            savedPet = petService.savePet(petModel);
+        } catch (RuntimeException e) {
+            if (photo != null) {
+                photo.abandon();
+            }
+            throw e;
+        }
+
+        if (photo != null) {
+            String photoPath;
+            try {
+                photoPath = photo.store(savedPet.getId());
+            } catch (ResponseStatusException e) {
+                petService.deletePet(savedPet.getId()); // no half-created listing
+                throw e;
+            }
             savedPet.setPhoto(photoPath);
-            petService.savePet(savedPet); // Update with photo path
+            try {
+                petService.savePet(savedPet); // Update with photo path
+            } catch (RuntimeException e) {
+                fileStorageService.delete(photoPath); // the reference store() took has no row to hold it
+                petService.deletePet(savedPet.getId());
+                throw e;
+            }
+            long petId = savedPet.getId();
+            imagePipeline.submit(photoPath, placeholder -> petService.updatePhotoPlaceholder(petId, photoPath, placeholder));
         }
 
         emailService.sendEmail(user.getEmail(),
@@ -120,14 +175,105 @@ public class PetController {
         return ResponseEntity.ok("New pet added successfully");
     }
 
+    @FunctionalInterface
+    private interface PhotoSource {
+        String store(long petId) throws IOException;
+
+        // The listing was never saved; release anything taken before store()
+        default void abandon() throws IOException {
+        }
+    }
+
+    // A photo already stored while the form was read
+    private PhotoSource storedPhoto(String url) {
+        return new PhotoSource() {
+            @Override
+            public String store(long petId) {
+                return url;
+            }
+
+            @Override
+            public void abandon() throws IOException {
+                fileStorageService.delete(url);
+            }
+        };
+    }
+
+
+    /**
+     * Starts a bulk import; the body is CSV with a header row (text/csv) or one JSON
+     * listing per line (application/x-ndjson). Poll the returned job for progress.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ImportJobDto> importPets(HttpServletRequest request, Principal principal) throws IOException {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        String format = MediaType.parseMediaType(request.getContentType()).getSubtype().equals("csv")
+                ? PetImportService.CSV : PetImportService.NDJSON;
+        try {
+            ImportJobDto job = petImportService.start(request.getInputStream(), format, principal.getName());
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/v1/pets/import/" + job.getId()))
+                    .body(job);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<ImportJobDto> getImportJob(@PathVariable String jobId) {
+        ImportJobDto job = petImportService.getJob(jobId);
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
+    }
 
     @GetMapping("/getAll")
     public List<PetDto> getAllPets() {
         return petService.getAllPets();
     }
 
+    /**
+     * Streams the whole catalog (or the pets matching the /approved filters and range
+     * filters, with an optional status) as NDJSON or CSV, optionally gzipped, in
+     * constant memory. Admins only; rows are in id order.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportPets(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String specie,
+            @RequestParam(required = false) String breed,
+            @RequestParam(required = false) String gender,
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) String search,
+            PetRangeFilter range) {
+
+        if (!format.equals(PetExportService.NDJSON) && !format.equals(PetExportService.CSV)) {
+            return ResponseEntity.badRequest().build();
+        }
+        // The export walks a cursor in id order; a sort does not apply
+        if (range.getSort() != null) {
+            return ResponseEntity.badRequest().build();
+        }
+        MediaType contentType = gzip ? MediaType.parseMediaType("application/gzip")
+                : format.equals(PetExportService.CSV) ? MediaType.parseMediaType("text/csv")
+                : MediaType.parseMediaType("application/x-ndjson");
+        String filename = "pets." + format + (gzip ? ".gz" : "");
+
+        StreamingResponseBody body = out -> petExportService.export(format, gzip,
+                status, specie, breed, gender, location, search, range, out);
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
     @GetMapping("/get/{id}")
-    public ResponseEntity<PetDto> getPetById(@PathVariable Long id) {
+    public ResponseEntity<PetDto> getPetById(@PathVariable Long id, ServletWebRequest webRequest) {
+        if (ConditionalRequests.notModified(webRequest, catalogVersion.petTag(id), catalogVersion.getLastModified())) {
+            return null;
+        }
         PetDto pet = petService.getPetById(id);
         return pet != null ? ResponseEntity.ok(pet) : ResponseEntity.notFound().build();
     }
@@ -144,6 +290,14 @@ public class PetController {
         }
     }
 
+    @PutMapping("/status/bulk")
+    public ResponseEntity<Map<Long, String>> updatePetStatuses(@RequestBody BulkStatusRequest request) {
+        if (request.getIds() == null || request.getStatus() == null || request.getStatus().isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(petService.updatePetStatuses(request.getIds(), request.getStatus().trim()));
+    }
+
     @PutMapping("/update/{id}")
     public ResponseEntity<PetModel> updatePet(
             @PathVariable int id,
@@ -163,22 +317,63 @@ public class PetController {
         PetModel calculatedPet = petService.calculateCosts(petModel);
         return ResponseEntity.ok(calculatedPet);
     }
+
+    // POST /api/v1/pets/quotes: prices for a page of listings in one call; body is a JSON array of pet ids
+    @PostMapping(value = "/quotes", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> quotePets(@RequestBody List<Long> ids) {
+        if (ids.size() > PetService.MAX_QUOTE_BATCH || ids.contains(null)) {
+            return ResponseEntity.badRequest().build();
+        }
+        PricingEngine.Batch quotes = petService.quotePets(ids);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+                json.writeStartArray();
+                for (int i = 0; i < quotes.size(); i++) {
+                    json.writeStartObject();
+                    json.writeNumberField("id", quotes.id(i));
+                    json.writeNumberField("totalCost", quotes.totalCost(i));
+                    json.writeNumberField("discount", quotes.discount(i));
+                    json.writeNumberField("netCost", quotes.netCost(i));
+                    json.writeEndObject();
+                }
+                json.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
     @PostMapping("/quiz")
-    public ResponseEntity<List<PetDto>> findMatchingPets(@RequestBody QuizRequest quizRequest) {
-        List<PetDto> matchedPets = petService.findMatchingPets(quizRequest);
-        return ResponseEntity.ok(matchedPets);
+    public ResponseEntity<MappingJacksonValue> findMatchingPets(
+            @RequestBody QuizRequest quizRequest,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String view) {
+        Set<String> selected;
+        try {
+            selected = PetFields.parse(fields, view);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<PetDto> matchedPets = petService.findMatchingPets(quizRequest, selected);
+        return ResponseEntity.ok(PetFields.filter(matchedPets, selected));
     }
 
     @GetMapping("/my-pets")
-    public ResponseEntity<List<PetDto>> getUserPets() {
+    public ResponseEntity<MappingJacksonValue> getUserPets(
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String view) {
+        Set<String> selected;
+        try {
+            selected = PetFields.parse(fields, view);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
         try {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
             System.out.println("Authenticated user: " + authentication.getName()); // Log the username
 
-            List<PetDto> pets = petService.getPetsByUserEmail(authentication.getName());
+            List<PetDto> pets = petService.getPetsByUserEmail(authentication.getName(), selected);
             System.out.println("Found " + pets.size() + " pets"); // Log pet count
 
-            return ResponseEntity.ok(pets);
+            return ResponseEntity.ok(PetFields.filter(pets, selected));
         } catch (Exception e) {
             System.err.println("Error in getUserPets: " + e.getMessage());
             e.printStackTrace();
@@ -199,35 +394,226 @@ public class PetController {
     }
 
     @GetMapping("/recent-approved")
-    public ResponseEntity<List<PetDto>> getRecentApprovedPets() {
+    public ResponseEntity<byte[]> getRecentApprovedPets(@RequestParam(defaultValue = "8") int limit,
+                                                        @RequestParam(required = false) String fields,
+                                                        @RequestParam(required = false) String view,
+                                                        ServletWebRequest webRequest) {
+        Set<String> selected;
+        try {
+            selected = PetFields.parse(fields, view);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (notModified(webRequest)) {
+            return null;
+        }
         try {
-            // Get 8 most recent approved pets, ordered by creation date descending
-            List<PetDto> pets = petService.getRecentApprovedPets(8);
-            return ResponseEntity.ok(pets);
+            // Most recent approved pets, newest first, already serialized
+            byte[] pets = petService.getRecentApprovedPetsJson(limit, selected);
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(pets);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
     @GetMapping("/approved")
-    public ResponseEntity<List<PetDto>> getApprovedPets(
+    public ResponseEntity<MappingJacksonValue> getApprovedPets(
             @RequestParam(required = false) String specie,
             @RequestParam(required = false) String breed,
             @RequestParam(required = false) String gender,
             @RequestParam(required = false) String location,
-            @RequestParam(required = false) String search) {
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String view,
+            PetRangeFilter range,
+            ServletWebRequest webRequest) {
 
-        List<PetDto> pets = petService.getApprovedPets(specie, breed, gender, location, search);
-        return ResponseEntity.ok(pets);
+        Set<String> selected;
+        try {
+            selected = PetFields.parse(fields, view);
+            range.toSort();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (notModified(webRequest)) {
+            return null;
+        }
+        List<PetDto> pets = petService.getApprovedPets(specie, breed, gender, location, search, range, selected);
+        return ResponseEntity.ok(PetFields.filter(pets, selected));
+    }
+
+    @GetMapping("/approved/facets")
+    public ResponseEntity<Map<String, Map<String, Integer>>> getApprovedFacets(
+            @RequestParam(required = false) String specie,
+            @RequestParam(required = false) String breed,
+            @RequestParam(required = false) String gender,
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) String size,
+            @RequestParam(required = false) String search,
+            ServletWebRequest webRequest) {
+
+        if (notModified(webRequest)) {
+            return null;
+        }
+        return ResponseEntity.ok(petService.getApprovedFacets(specie, breed, gender, location, size, search));
+    }
+
+    /**
+     * GET /api/v1/pets/approved/near: approved, available pets nearest first. The
+     * origin is lat/lon, a place name (near=Kandy) or, failing both, the logged-in
+     * user's own location; a minLat/maxLat/minLon/maxLon box replaces the radius.
+     */
+    @GetMapping("/approved/near")
+    public ResponseEntity<MappingJacksonValue> getApprovedPetsNear(
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lon,
+            @RequestParam(required = false) String near,
+            @RequestParam(defaultValue = "25") double radiusKm,
+            @RequestParam(required = false) Double minLat,
+            @RequestParam(required = false) Double maxLat,
+            @RequestParam(required = false) Double minLon,
+            @RequestParam(required = false) Double maxLon,
+            @RequestParam(required = false) String specie,
+            @RequestParam(required = false) String breed,
+            @RequestParam(required = false) String gender,
+            @RequestParam(required = false) String size,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String view,
+            Principal principal,
+            ServletWebRequest webRequest) {
+
+        Set<String> selected;
+        try {
+            selected = PetFields.parse(fields, view);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (lat == null || lon == null) {
+            Gazetteer.Place place = Gazetteer.lookup(near);
+            if (place != null) {
+                lat = place.latitude();
+                lon = place.longitude();
+            } else if (near == null && principal != null) {
+                User user = userRepository.findFirstByEmail(principal.getName()).orElse(null);
+                if (user != null) {
+                    lat = user.getLatitude();
+                    lon = user.getLongitude();
+                }
+            }
+        }
+        if (lat == null || lon == null || Math.abs(lat) > 90 || Math.abs(lon) > 180
+                || radiusKm <= 0 || radiusKm > MAX_RADIUS_KM) {
+            return ResponseEntity.badRequest().build();
+        }
+        double[] box = null;
+        if (minLat != null || maxLat != null || minLon != null || maxLon != null) {
+            if (minLat == null || maxLat == null || minLon == null || maxLon == null
+                    || minLat > maxLat || minLon > maxLon) {
+                return ResponseEntity.badRequest().build();
+            }
+            box = new double[]{minLat, maxLat, minLon, maxLon};
+        }
+        // The origin may come from the caller's profile rather than the query string
+        if (notModified(webRequest, "origin=" + lat + "," + lon)) {
+            return null;
+        }
+        List<PetDto> pets = petService.getApprovedPetsNear(lat, lon, radiusKm, box,
+                specie, breed, gender, size, limit);
+        return ResponseEntity.ok(PetFields.filter(pets, selected));
+    }
+
+    @GetMapping("/approved/page")
+    public ResponseEntity<PetPageDto> getApprovedPetsPage(
+            @RequestParam(required = false) String specie,
+            @RequestParam(required = false) String breed,
+            @RequestParam(required = false) String gender,
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            PetRangeFilter range,
+            ServletWebRequest webRequest) {
+        // Keyset pages are in id order only
+        if (range.getSort() != null) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (notModified(webRequest)) {
+            return null;
+        }
+        try {
+            Long afterId = cursor != null ? CursorUtil.decode(cursor) : after;
+            PetPageDto page = petService.getApprovedPetsPage(specie, breed, gender, location, search, range,
+                    afterId, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Bulk consumers: the array is written page by page, so heap use stays at one page
+    @GetMapping(value = "/approved/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamApprovedPets(
+            @RequestParam(required = false) String specie,
+            @RequestParam(required = false) String breed,
+            @RequestParam(required = false) String gender,
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) String search,
+            PetRangeFilter range) {
+
+        if (range.getSort() != null) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+                json.writeStartArray();
+                // Searched once; each page binds only the hits past its cursor
+                List<Long> hits = petService.approvedSearchHits(search);
+                Long afterId = null;
+                PetPageDto page;
+                do {
+                    page = petService.getApprovedPetsPage(specie, breed, gender, location, search, hits, range,
+                            afterId, PetService.MAX_PAGE_SIZE);
+                    for (PetDto pet : page.getItems()) {
+                        objectMapper.writeValue(json, pet);
+                    }
+                    json.flush();
+                    afterId = page.getLastId();
+                } while (page.getNextCursor() != null);
+                json.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     @GetMapping("/recommended")
-    public ResponseEntity<List<PetDto>> getRecommendedPets(
+    public ResponseEntity<MappingJacksonValue> getRecommendedPets(
             @RequestParam String specie,
-            @RequestParam(required = false) long exclude) {
+            @RequestParam(required = false) Long exclude,
+            @RequestParam(defaultValue = "4") int limit,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String view) {
 
-        List<PetDto> pets = petService.getRecommendedPets(specie, exclude);
-        return ResponseEntity.ok(pets);
+        Set<String> selected;
+        try {
+            selected = PetFields.parse(fields, view);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<PetDto> pets = petService.getRecommendedPets(specie, exclude, limit, selected);
+        return ResponseEntity.ok(PetFields.filter(pets, selected));
+    }
+
+    private boolean notModified(ServletWebRequest webRequest) {
+        return notModified(webRequest, null);
+    }
+
+    // resolved: inputs of the response that are not in the query string
+    private boolean notModified(ServletWebRequest webRequest, String resolved) {
+        String query = webRequest.getRequest().getQueryString();
+        String etag = catalogVersion.catalogTag(resolved == null ? query : query + "&" + resolved);
+        return ConditionalRequests.notModified(webRequest, etag, catalogVersion.getLastModified());
     }
 
     @GetMapping("/profile/{userId}")
@@ -238,68 +624,43 @@ public class PetController {
     }
 
     @PostMapping(value = "/add/by-name", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<String> addPet(
-            @RequestParam(value = "speciesId") Long speciesId,
-            @RequestParam(value = "specie") String specie,
-            @RequestParam(value = "petName") String petName,
-            @RequestParam(value = "breed") String breed,
-            @RequestParam(value = "location") String location,
-            @RequestParam(value = "age") String age,
-            @RequestParam(value = "gender") String gender,
-            @RequestParam(value = "reason") String reason,
-            @RequestParam(value = "ifTemp") String ifTemp,
-            @RequestParam(value = "justify") String justify,
-            @RequestParam(value = "vaccinationStatus") String vaccinationStatus,
-            @RequestParam(value = "colorMarkings") String colorMarkings,
-            @RequestParam(value = "size") String size,
-            @RequestParam(value = "spayedNeutered") boolean spayedNeutered,
-            @RequestParam(value = "medicalHistory") String medicalHistory,
-            @RequestParam(value = "behavior") String behavior,
-            @RequestParam(value = "specialNeeds") String specialNeeds,
-            @RequestParam(value = "adoptionFee") double adoptionFee,
-            @RequestParam(value = "adoptionFeeFree") boolean adoptionFeeFree,
-            @RequestParam(value = "photo", required = false) MultipartFile photo,
-            Principal principal) throws IOException {
+    public ResponseEntity<String> addPetBySpecies(HttpServletRequest request, Principal principal) throws IOException {
 
         // Get current user
         String email = principal.getName();
         User user = userRepository.findFirstByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        // Get species
-        Species species = speciesRepository.findById(speciesId)
-                .orElseThrow(() -> new RuntimeException("Species not found"));
-
-        // Create new pet
-        PetModel petModel = new PetModel();
-        petModel.setSpecie(specie);
-        petModel.setPetName(petName);
-        petModel.setBreed(breed);
-        petModel.setLocation(location);
-        petModel.setAge(age);
-        petModel.setGender(gender);
-        petModel.setReason(reason);
-        petModel.setIfTemp(ifTemp);
-        petModel.setJustify(justify);
-        petModel.setUser(user);
-        petModel.setVaccinationStatus(vaccinationStatus);
-        petModel.setColorMarkings(colorMarkings);
-        petModel.setSize(size);
-        petModel.setSpayedNeutered(spayedNeutered);
-        petModel.setMedicalHistory(medicalHistory);
-        petModel.setBehavior(behavior);
-        petModel.setSpecialNeeds(specialNeeds);
-        petModel.setAdoptionFee(adoptionFeeFree ? 0 : adoptionFee);
-        petModel.setAdoptionFeeFree(adoptionFeeFree);
-
-
-        // Handle image upload
-        if (photo != null && !photo.isEmpty()) {
-            String photoPath = fileStorageService.store(photo, "pet-images/" + petModel.getId());
-            petModel.setPhoto(photoPath);
-        }
-
-        petService.savePet(petModel);
+        Map<String, String> values = multipartFormReader.read(request, Set.of("photo"), "pet-images/uploads");
+        String photo = values.remove("photo");
+        PetModel petModel;
+        try {
+            // Get species
+            String speciesId = values.remove("speciesId");
+            if (speciesId == null || !speciesId.strip().matches("\\d{1,18}")) {
+                throw new IllegalArgumentException("speciesId is required");
+            }
+            speciesRepository.findById(Long.parseLong(speciesId.strip()))
+                    .orElseThrow(() -> new IllegalArgumentException("Species not found"));
+            petModel = petImportService.toPet(values, user);
+        } catch (IllegalArgumentException e) {
+            fileStorageService.delete(photo);
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+        petModel.setPhoto(photo);
+
+        PetModel savedPet;
+        try {
+            savedPet = petService.savePet(petModel);
+        } catch (RuntimeException e) {
+            fileStorageService.delete(petModel.getPhoto()); // stored above; release it with the failed save
+            throw e;
+        }
+        if (savedPet.getPhoto() != null) {
+            String photoPath = savedPet.getPhoto();
+            long petId = savedPet.getId();
+            imagePipeline.submit(photoPath, placeholder -> petService.updatePhotoPlaceholder(petId, photoPath, placeholder));
+        }
 
         emailService.sendEmail(user.getEmail(),
                 "Adoption Post Created",
@@ -3,10 +3,15 @@ package com.example.PostApet.Controller;
 import com.example.PostApet.Model.User;
 import com.example.PostApet.Repository.UserRepository;
 import com.example.PostApet.Service.FileStorageService;
+import com.example.PostApet.Service.ImagePipeline;
+import com.example.PostApet.Service.MultipartFormReader;
 import com.example.PostApet.Service.jwt.UserService;
 import com.example.PostApet.dto.UpdateProfileRequest;
 import com.example.PostApet.dto.UserDto;
 import com.example.PostApet.util.FileUploadUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -14,7 +19,6 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
 import java.io.IOException;
@@ -24,6 +28,8 @@ import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.security.Principal;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 
 @RestController
@@ -34,10 +40,17 @@ public class ProfileController {
     private final UserService userService;
     private final FileStorageService fileStorageService;
     private final UserRepository userRepository;
+    private final ImagePipeline imagePipeline;
+    private final MultipartFormReader multipartFormReader;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public ProfileController(UserService userService, FileStorageService fileStorageService, UserRepository userRepository) {
+    public ProfileController(UserService userService, FileStorageService fileStorageService, UserRepository userRepository,
+                             ImagePipeline imagePipeline, MultipartFormReader multipartFormReader, ObjectMapper objectMapper) {
         this.userService = userService;
+        this.multipartFormReader = multipartFormReader;
+        this.objectMapper = objectMapper;
+        this.imagePipeline = imagePipeline;
         this.userRepository = userRepository;
         this.fileStorageService = fileStorageService;
     }
@@ -84,45 +97,56 @@ public class ProfileController {
     }
 
     @PutMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<UserDto> updateProfile(
-            @RequestParam(value = "name", required = false) String name,
-            @RequestParam(value = "nic", required = false) String nic,
-            @RequestParam(value = "phone", required = false) String phone,
-            @RequestParam(value = "location", required = false) String location,
-            @RequestParam(value = "profileImage", required = false) MultipartFile profileImage,
-            Principal principal) throws IOException {
+    public ResponseEntity<UserDto> updateProfile(HttpServletRequest request, Principal principal) throws IOException {
 
         String email = principal.getName();
         User currentUser = userService.getUserByEmail(email);
 
-        String profileImagePath = currentUser.getProfileImage(); // Keep existing if no new image
-
-        if (profileImage != null && !profileImage.isEmpty()) {
-            // Delete old image if exists
-            if (currentUser.getProfileImage() != null) {
-                fileStorageService.delete(currentUser.getProfileImage());
-            }
-            // Save new image with user-specific directory
-            profileImagePath = fileStorageService.store(profileImage, "profile-images/" + currentUser.getId());
-        }
+        String oldProfileImage = currentUser.getProfileImage();
+        // Save new image with user-specific directory; a rejected upload keeps the old one
+        Map<String, String> values = multipartFormReader.read(request, Set.of("profileImage"),
+                "profile-images/" + currentUser.getId());
+        String profileImagePath = values.getOrDefault("profileImage", oldProfileImage); // Keep existing if no new image
 
         UpdateProfileRequest updateRequest = new UpdateProfileRequest();
-        updateRequest.setName(name);
-        updateRequest.setNic(nic);
-        updateRequest.setPhone(phone);
-        updateRequest.setLocation(location);
+        updateRequest.setName(values.get("name"));
+        updateRequest.setNic(values.get("nic"));
+        updateRequest.setPhone(values.get("phone"));
+        updateRequest.setLocation(values.get("location"));
         updateRequest.setProfileImage(profileImagePath);
 
-        UserDto updatedUser = userService.updateProfile(email, updateRequest);
+        UserDto updatedUser;
+        try {
+            updatedUser = userService.updateProfile(email, updateRequest);
+        } catch (RuntimeException e) {
+            if (!Objects.equals(profileImagePath, oldProfileImage)) {
+                fileStorageService.delete(profileImagePath); // the profile still points at the old image
+            }
+            throw e;
+        }
+        if (!Objects.equals(profileImagePath, oldProfileImage)) {
+            // Only now that the profile points at the new image is the old one let go
+            fileStorageService.delete(oldProfileImage);
+            imagePipeline.submit(profileImagePath);
+        }
         return ResponseEntity.ok(updatedUser);
     }
 
     @PutMapping(value = "/password", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<?> updatePassword(
-            @RequestPart("updateRequest") UpdateProfileRequest updateRequest,
-            Principal principal) {
+    public ResponseEntity<?> updatePassword(HttpServletRequest request, Principal principal) throws IOException {
 
         String email = principal.getName();
+        // The client sends the request as a JSON part named updateRequest
+        String json = multipartFormReader.read(request, Set.of(), null).get("updateRequest");
+        if (json == null) {
+            return ResponseEntity.badRequest().body("updateRequest is required");
+        }
+        UpdateProfileRequest updateRequest;
+        try {
+            updateRequest = objectMapper.readValue(json, UpdateProfileRequest.class);
+        } catch (JsonProcessingException e) {
+            return ResponseEntity.badRequest().body("Malformed updateRequest");
+        }
 
         try {
             UserDto updatedUser = userService.updatePassword(
@@ -2,16 +2,22 @@ package com.example.PostApet.Controller;
 
 import com.example.PostApet.Model.Species;
 import com.example.PostApet.Repository.SpeciesRepository;
+import com.example.PostApet.Service.CatalogVersion;
 import com.example.PostApet.Service.FileStorageService;
+import com.example.PostApet.Service.ImagePipeline;
+import com.example.PostApet.Service.MultipartFormReader;
+import com.example.PostApet.util.ConditionalRequests;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
@@ -20,42 +26,72 @@ import java.util.stream.Collectors;
 public class SpeciesController {
     private final SpeciesRepository speciesRepository;
     private final FileStorageService fileStorageService;
+    private final CatalogVersion catalogVersion;
+    private final ImagePipeline imagePipeline;
+    private final MultipartFormReader multipartFormReader;
 
     public SpeciesController(SpeciesRepository speciesRepository,
-                             FileStorageService fileStorageService) {
+                             FileStorageService fileStorageService,
+                             CatalogVersion catalogVersion,
+                             ImagePipeline imagePipeline,
+                             MultipartFormReader multipartFormReader) {
+        this.multipartFormReader = multipartFormReader;
         this.speciesRepository = speciesRepository;
         this.fileStorageService = fileStorageService;
+        this.catalogVersion = catalogVersion;
+        this.imagePipeline = imagePipeline;
     }
 
     @GetMapping
-    public List<Species> getAllSpecies() {
-        return speciesRepository.findAllByOrderByNameAsc();
+    public ResponseEntity<List<Species>> getAllSpecies(ServletWebRequest webRequest) {
+        if (notModified(webRequest)) {
+            return null;
+        }
+        return ResponseEntity.ok(speciesRepository.findAllByOrderByNameAsc());
     }
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<Species> createSpecies(
-            @RequestParam("name") String name,
-            @RequestParam(value = "photo", required = false) MultipartFile photo) throws IOException {
+    public ResponseEntity<Species> createSpecies(HttpServletRequest request) throws IOException {
+        Map<String, String> values = multipartFormReader.read(request, Set.of("photo"), "species-images");
+        String name = values.get("name");
+        if (name == null || name.isBlank()) {
+            fileStorageService.delete(values.get("photo"));
+            return ResponseEntity.badRequest().build();
+        }
 
         Species species = new Species();
         species.setName(name);
 
-        if (photo != null && !photo.isEmpty()) {
-            String photoPath = fileStorageService.store(photo, "species-images");
+        String photoPath = values.get("photo");
+        if (photoPath != null) {
             species.setPhoto(photoPath);
+            imagePipeline.submit(photoPath);
         }
 
-        Species savedSpecies = speciesRepository.save(species);
+        Species savedSpecies;
+        try {
+            savedSpecies = speciesRepository.save(species);
+        } catch (RuntimeException e) {
+            fileStorageService.delete(species.getPhoto());
+            throw e;
+        }
+        catalogVersion.bump();
         return ResponseEntity.ok(savedSpecies);
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteSpecies(@PathVariable Long id) {
+        String photo = speciesRepository.findById(id).map(Species::getPhoto).orElse(null);
         speciesRepository.deleteById(id);
+        catalogVersion.bump();
+        fileStorageService.release(photo);
         return ResponseEntity.ok().build();
     }
     @GetMapping("/for-quiz")
-    public ResponseEntity<List<Map<String, String>>> getSpeciesForQuiz() {
+    public ResponseEntity<List<Map<String, String>>> getSpeciesForQuiz(ServletWebRequest webRequest) {
+        if (notModified(webRequest)) {
+            return null;
+        }
         List<Species> speciesList = speciesRepository.findAllByOrderByNameAsc();
 
         List<Map<String, String>> quizOptions = speciesList.stream()
@@ -69,4 +105,9 @@ public class SpeciesController {
 
         return ResponseEntity.ok(quizOptions);
     }
+
+    private boolean notModified(ServletWebRequest webRequest) {
+        String etag = catalogVersion.catalogTag(webRequest.getRequest().getRequestURI());
+        return ConditionalRequests.notModified(webRequest, etag, catalogVersion.getLastModified());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,99 @@
+package com.example.PostApet.Controller;
+
+import com.example.PostApet.Model.User;
+import com.example.PostApet.Service.ResumableUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Resumable photo uploads, tus 1.0 style:
+ * <ol>
+ * <li>POST with Upload-Length creates an upload (201, Location).</li>
+ * <li>PATCH application/offset+octet-stream with Upload-Offset appends a chunk;
+ * the response's Upload-Offset is where the next one starts.</li>
+ * <li>After a dropped connection, HEAD (or GET) gives the Upload-Offset to resume from.</li>
+ * <li>POST /{id}/finish validates and stores the file and returns its URL.</li>
+ * </ol>
+ * The finished upload's id goes into a JSON pet post as photoUploadId.
+ * DELETE abandons an upload; untouched ones expire after file.resumable-expiry.
+ */
+@RestController
+@RequestMapping("/api/v1/uploads")
+@CrossOrigin(origins = "http://localhost:3000")
+public class UploadController {
+
+    private static final String TUS_RESUMABLE = "Tus-Resumable";
+    private static final String TUS_VERSION = "1.0.0";
+    private static final String UPLOAD_LENGTH = "Upload-Length";
+    private static final String UPLOAD_OFFSET = "Upload-Offset";
+
+    private final ResumableUploadService resumableUploadService;
+
+    public UploadController(ResumableUploadService resumableUploadService) {
+        this.resumableUploadService = resumableUploadService;
+    }
+
+    @PostMapping
+    public ResponseEntity<ResumableUploadService.Status> create(
+            @RequestHeader(UPLOAD_LENGTH) long length,
+            Authentication authentication) throws IOException {
+        ResumableUploadService.Status upload = resumableUploadService.create(userId(authentication), length);
+        return ResponseEntity.created(URI.create("/api/v1/uploads/" + upload.id()))
+                .header(TUS_RESUMABLE, TUS_VERSION)
+                .header(UPLOAD_OFFSET, "0")
+                .header(UPLOAD_LENGTH, String.valueOf(length))
+                .body(upload);
+    }
+
+    @RequestMapping(value = "/{id}", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public ResponseEntity<ResumableUploadService.Status> status(
+            @PathVariable String id,
+            Authentication authentication) throws IOException {
+        ResumableUploadService.Status upload = resumableUploadService.status(id, userId(authentication));
+        return ResponseEntity.ok()
+                .header(TUS_RESUMABLE, TUS_VERSION)
+                .header(UPLOAD_OFFSET, String.valueOf(upload.offset()))
+                .header(UPLOAD_LENGTH, String.valueOf(upload.length()))
+                .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                .body(upload);
+    }
+
+    @PatchMapping(value = "/{id}", consumes = "application/offset+octet-stream")
+    public ResponseEntity<Void> append(
+            @PathVariable String id,
+            @RequestHeader(UPLOAD_OFFSET) long offset,
+            HttpServletRequest request,
+            Authentication authentication) throws IOException {
+        long newOffset = resumableUploadService.append(id, userId(authentication), offset, request.getInputStream());
+        return ResponseEntity.status(HttpStatus.NO_CONTENT)
+                .header(TUS_RESUMABLE, TUS_VERSION)
+                .header(UPLOAD_OFFSET, String.valueOf(newOffset))
+                .build();
+    }
+
+    @PostMapping("/{id}/finish")
+    public ResponseEntity<ResumableUploadService.Status> finish(
+            @PathVariable String id,
+            Authentication authentication) throws IOException {
+        return ResponseEntity.ok(resumableUploadService.finish(id, userId(authentication)));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> cancel(
+            @PathVariable String id,
+            Authentication authentication) throws IOException {
+        resumableUploadService.cancel(id, userId(authentication));
+        return ResponseEntity.noContent().header(TUS_RESUMABLE, TUS_VERSION).build();
+    }
+
+    private static long userId(Authentication authentication) {
+        return ((User) authentication.getPrincipal()).getId();
+    }
+}
@@ -7,7 +7,9 @@ import java.time.LocalDateTime;
 @Table(name = "admin_activity")
 public class AdminActivity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "admin_activity_id")
+    @TableGenerator(name = "admin_activity_id", table = "id_generators", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "admin_activity", allocationSize = 50)
     private Long id;
 
     private String message;
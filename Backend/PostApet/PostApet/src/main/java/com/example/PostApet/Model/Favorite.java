@@ -8,7 +8,9 @@ import java.time.LocalDateTime;
 @Table(name = "favorites")
 public class Favorite {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "favorites_id")
+    @TableGenerator(name = "favorites_id", table = "id_generators", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "favorites", allocationSize = 50)
     private Long id;
 
     @ManyToOne (fetch = FetchType.LAZY)
@@ -1,17 +1,42 @@
 package com.example.PostApet.Model;
 
+import com.example.PostApet.util.AgeUtil;
+import com.example.PostApet.util.Gazetteer;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import java.util.Objects;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "pets")
+// Equality on reg_status then a range or sort on the numeric column: MySQL range scans
+@Table(indexes = {
+        @Index(name = "idx_pet_status_age_months", columnList = "reg_status, age_months"),
+        @Index(name = "idx_pet_status_adoption_fee", columnList = "reg_status, adoption_fee")
+})
 public class PetModel {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "pet_model_id")
+    @TableGenerator(name = "pet_model_id", table = "id_generators", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "pet_model", allocationSize = 50)
     private Long id;
+
+    @Version
+    private long version;
+
     private String petName;
     private String specie;
     private String breed;
     private String location;
+    // location geocoded against the offline gazetteer; null when it is not listed
+    private Double latitude;
+    private Double longitude;
     private String age;
+    // age normalized to whole months (AgeUtil); null when the text is not understood
+    @Column(name = "age_months")
+    private Integer ageMonths;
     private String gender;
     private String reason;
     private String ifTemp;
@@ -23,6 +48,8 @@ public class PetModel {
 
     @Column(name = "photo")
     private String photo;
+    // BlurHash of the photo, set by ImagePipeline once its variants are written
+    private String photoPlaceholder;
     private String regStatus;
     private String physicalStatus;
     private String docName;
@@ -87,6 +114,14 @@ public class PetModel {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getPetName() {
         return petName;
     }
@@ -117,6 +152,21 @@ public class PetModel {
 
     public void setLocation(String location) {
         this.location = location;
+        geocode();
+    }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    private void geocode() {
+        Gazetteer.Place place = Gazetteer.lookup(location);
+        this.latitude = place != null ? place.latitude() : null;
+        this.longitude = place != null ? place.longitude() : null;
     }
 
     public String getAge() {
@@ -125,6 +175,18 @@ public class PetModel {
 
     public void setAge(String age) {
         this.age = age;
+        this.ageMonths = AgeUtil.toMonths(age);
+    }
+
+    public Integer getAgeMonths() {
+        return ageMonths;
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void normalize() {
+        this.ageMonths = AgeUtil.toMonths(age);
+        geocode();
     }
 
     public String getGender() {
@@ -196,9 +258,20 @@ public class PetModel {
     }
 
     public void setPhoto(String photo) {
+        if (!Objects.equals(this.photo, photo)) {
+            this.photoPlaceholder = null;
+        }
         this.photo = photo;
     }
 
+    public String getPhotoPlaceholder() {
+        return photoPlaceholder;
+    }
+
+    public void setPhotoPlaceholder(String photoPlaceholder) {
+        this.photoPlaceholder = photoPlaceholder;
+    }
+
     public String getRegStatus() {
         return regStatus;
     }
@@ -343,36 +416,4 @@ public class PetModel {
     public void setAdoptionFeeFree(boolean adoptionFeeFree) {
         this.adoptionFeeFree = adoptionFeeFree;
     }
-
-
-    // Calculation Methods
-    public void calculateTotalCost() {
-        // Example implementation of total cost calculation
-        if (age != null) {
-            try {
-                int duration = Integer.parseInt(age); // Assuming age represents the duration in months
-                if (duration <= 1) {
-                    totalCost = 20000.0;
-                } else if (duration <= 6) {
-                    totalCost = 60000.0;
-                } else if (duration <= 12) {
-                    totalCost = 100000.0;
-                } else {
-                    totalCost = 10000.0;
-                }
-            } catch (NumberFormatException e) {
-                totalCost = 10000.0; // Default cost if parsing fails
-            }
-        } else {
-            totalCost = 10000.0; // Default cost
-        }
-    }
-
-    public void calculateNetCost() {
-        if (totalCost != null && discount != null) {
-            netCost = totalCost - (totalCost * discount / 100);
-        } else {
-            netCost = totalCost;
-        }
-    }
-}
\ No newline at end of file
+}
@@ -1,8 +1,12 @@
 package com.example.PostApet.Model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "species")
 public class Species {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
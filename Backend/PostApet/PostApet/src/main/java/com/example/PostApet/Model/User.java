@@ -2,8 +2,11 @@ package com.example.PostApet.Model;
 
 import com.example.PostApet.Enum.UserRole;
 import com.example.PostApet.dto.UserDto;
+import com.example.PostApet.util.Gazetteer;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -11,6 +14,8 @@ import org.springframework.security.core.userdetails.UserDetails;
 import java.util.Collection;
 import java.util.List;
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 @Data
 public class User implements UserDetails
 {
@@ -26,6 +31,9 @@ public class User implements UserDetails
     private String nic;
     private String phone;
     private String location;
+    // location geocoded against the offline gazetteer; null when it is not listed
+    private Double latitude;
+    private Double longitude;
 
     @Column(length = 500)
     private String profileImage;
@@ -60,6 +68,15 @@ public class User implements UserDetails
 
     public void setLocation(String location) {
         this.location = location;
+        geocode();
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void geocode() {
+        Gazetteer.Place place = Gazetteer.lookup(location);
+        this.latitude = place != null ? place.latitude() : null;
+        this.longitude = place != null ? place.longitude() : null;
     }
 
     public List<PetModel> getPets() {
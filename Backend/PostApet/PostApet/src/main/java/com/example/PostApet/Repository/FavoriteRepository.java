@@ -1,7 +1,10 @@
 package com.example.PostApet.Repository;
 
 import com.example.PostApet.Model.Favorite;
+import com.example.PostApet.Model.PetModel;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,4 +14,11 @@ public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
     Optional<Favorite> findByUserIdAndPetId(Long userId, Long petId);
     void deleteByUserIdAndPetId(Long userId, Long petId);
     boolean existsByUserIdAndPetId(Long userId, Long petId);
+
+    @Query("SELECT p FROM Favorite f JOIN f.pet p LEFT JOIN FETCH p.user " +
+            "WHERE f.user.id = :userId ORDER BY f.createdAt DESC")
+    List<PetModel> findFavoritePetsByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT f.pet.id FROM Favorite f WHERE f.user.id = :userId ORDER BY f.createdAt DESC")
+    List<Long> findFavoritePetIdsByUserId(@Param("userId") Long userId);
 }
\ No newline at end of file
@@ -2,13 +2,68 @@ package com.example.PostApet.Repository;
 
 import com.example.PostApet.Model.PetModel;
 import com.example.PostApet.Model.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface PetRepository extends JpaRepository<PetModel, Long>, JpaSpecificationExecutor<PetModel> {
     List<PetModel> findByUser(User user);
+
+    @Override
+    @EntityGraph(attributePaths = "user")
+    List<PetModel> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "user")
+    List<PetModel> findAllById(Iterable<Long> ids);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "pet-queries")})
+    @Query("SELECT p FROM PetModel p LEFT JOIN FETCH p.user WHERE p.id = :id")
+    Optional<PetModel> findWithUserById(@Param("id") Long id);
+
+    // Rows stay locked until the caller's transaction ends, so a concurrent moderator waits
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT p FROM PetModel p WHERE p.id IN :ids")
+    List<PetModel> lockAllById(@Param("ids") Collection<Long> ids);
+
+    // Rows already in the status are left alone (no version bump); returns how many changed
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE PetModel p SET p.regStatus = :status, p.version = p.version + 1 "
+            + "WHERE p.id IN :ids AND (p.regStatus IS NULL OR p.regStatus <> :status)")
+    int updateRegStatus(@Param("ids") Collection<Long> ids, @Param("status") String status);
+
+    @Query("SELECT p FROM PetModel p JOIN FETCH p.user u WHERE u.email = :email")
+    List<PetModel> findWithUserByUserEmail(@Param("email") String email);
+
+    // Pricing inputs only: id, ageMonths, specie, discount, adoptionFeeFree
+    @Query("SELECT p.id, p.ageMonths, p.specie, p.discount, p.adoptionFeeFree FROM PetModel p WHERE p.id IN :ids")
+    List<Object[]> findPricingInputs(@Param("ids") Collection<Long> ids);
+
     List<PetModel> findTop8ByRegStatusOrderByIdDesc(String regStatus);
     List<PetModel> findBySpecieAndRegStatus(String specie, String regStatus);
+    @EntityGraph(attributePaths = "user")
+    List<PetModel> findByRegStatusAndIdGreaterThanOrderByIdAsc(String regStatus, Long id, Pageable pageable);
+    @EntityGraph(attributePaths = "user")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "pet-queries")})
+    List<PetModel> findByRegStatusAndIsAvailableOrderByIdDesc(String regStatus, Boolean isAvailable, Pageable pageable);
 }
\ No newline at end of file
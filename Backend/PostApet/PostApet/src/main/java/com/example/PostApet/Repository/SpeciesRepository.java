@@ -1,12 +1,18 @@
 package com.example.PostApet.Repository;
 
 import com.example.PostApet.Model.Species;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.List;
 import java.util.Optional;
 
 public interface SpeciesRepository extends JpaRepository<Species, Long> {
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "species-queries")})
     List<Species> findAllByOrderByNameAsc();
 
     Species findByName(String name);
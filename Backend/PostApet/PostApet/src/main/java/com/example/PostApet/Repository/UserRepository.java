@@ -4,13 +4,19 @@ package com.example.PostApet.Repository;
 
 import com.example.PostApet.Enum.UserRole;
 import com.example.PostApet.Model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User,Long> {
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "user-queries")})
     Optional<User> findFirstByEmail(String email);
 
     Optional<User> findByUserRole(UserRole userRole);
@@ -0,0 +1,101 @@
+package com.example.PostApet.Service;
+
+import com.example.PostApet.Model.PetModel;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versions of the public catalog, used for ETag / Last-Modified on the catalog
+ * endpoints so an unchanged poll is answered with 304 from memory.
+ * <p>
+ * The generation is bumped on every pet, species or owner profile write, and when
+ * the in-memory indexes have finished loading; per-pet versions mirror the
+ * @Version column of PetModel. Both start from the boot time, so tags issued by
+ * a previous process never match.
+ * <p>
+ * Not a {@link PetChangeListener}: PetService calls it after every listener has
+ * applied the write, so a new tag is never issued while an index still serves the
+ * old catalog (which would cache the old body under the new tag).
+ */
+@Service
+public class CatalogVersion {
+
+    private final AtomicLong generation = new AtomicLong(System.currentTimeMillis());
+    private final AtomicLong ownerGeneration = new AtomicLong(System.currentTimeMillis());
+    private volatile long lastModified = System.currentTimeMillis();
+    private final Map<Long, Long> petVersions = new ConcurrentHashMap<>();
+
+    public void onPetSaved(PetModel pet) {
+        if (pet.getId() != null) {
+            petVersions.put(pet.getId(), pet.getVersion());
+        }
+        bump();
+    }
+
+    public void onPetDeleted(long petId) {
+        petVersions.remove(petId);
+        bump();
+    }
+
+    public void bump() {
+        generation.incrementAndGet();
+        lastModified = System.currentTimeMillis();
+    }
+
+    // Owner name and photo are part of every PetDto
+    public void bumpOwners() {
+        ownerGeneration.incrementAndGet();
+        bump();
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Tag for a catalog listing; the query string is part of it because each
+     * filter combination is a different representation.
+     */
+    public String catalogTag(String queryString) {
+        return "\"c" + generation.get() + "-" + digest(normalize(queryString)) + "\"";
+    }
+
+    /**
+     * Tag for a single pet: its row version plus the owner generation, or the
+     * catalog tag when the pet has not been seen since startup.
+     */
+    public String petTag(long petId) {
+        Long version = petVersions.get(petId);
+        if (version == null) {
+            return catalogTag("pet=" + petId);
+        }
+        return "\"p" + petId + "-" + version + "-" + ownerGeneration.get() + "\"";
+    }
+
+    // Parameter order does not change the representation
+    private static String normalize(String queryString) {
+        if (queryString == null || queryString.isEmpty()) {
+            return "";
+        }
+        String[] params = queryString.split("&");
+        Arrays.sort(params);
+        return String.join("&", params);
+    }
+
+    private static String digest(String query) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(query.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every JRE ships SHA-256
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.example.PostApet.Service;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -16,6 +17,11 @@ public class EmailService {
         this.from = from;
     }
 
+    @Async("mailExecutor")
+    public void sendEmailAsync(String to, String subject, String text) {
+        sendEmail(to, subject, text);
+    }
+
     public void sendEmail(String to, String subject, String text) {
         try {
             SimpleMailMessage message = new SimpleMailMessage();
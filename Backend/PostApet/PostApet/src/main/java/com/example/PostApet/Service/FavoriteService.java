@@ -4,11 +4,12 @@ import com.example.PostApet.Model.Favorite;
 import com.example.PostApet.Repository.FavoriteRepository;
 import com.example.PostApet.Service.jwt.UserService;
 import com.example.PostApet.dto.PetDto;
-import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,12 +28,22 @@ public class FavoriteService {
         this.userService = userService;
     }
 
+    @Transactional(readOnly = true)
     public List<PetDto> getUserFavorites(Long userId) {
-        return favoriteRepository.findByUserId(userId).stream()
-                .map(favorite -> petService.getPetById(favorite.getPet().getId()))
+        return favoriteRepository.findFavoritePetsByUserId(userId).stream()
+                .map(petService::toDetailDto)
                 .collect(Collectors.toList());
     }
 
+    // Sparse fieldset: favorite ids first, then only the selected pet columns
+    @Transactional(readOnly = true)
+    public List<PetDto> getUserFavorites(Long userId, Set<String> fields) {
+        if (fields == null) {
+            return getUserFavorites(userId);
+        }
+        return petService.findAllInOrder(favoriteRepository.findFavoritePetIdsByUserId(userId), fields, true);
+    }
+
     public void addFavorite(Long userId, Long petId) {
         if (!favoriteRepository.existsByUserIdAndPetId(userId, petId)) {
             Favorite favorite = new Favorite();
@@ -47,6 +58,7 @@ public class FavoriteService {
         favoriteRepository.deleteByUserIdAndPetId(userId, petId);
     }
 
+    @Transactional(readOnly = true)
     public boolean isFavorite(Long userId, Long petId) {
         return favoriteRepository.existsByUserIdAndPetId(userId, petId);
     }
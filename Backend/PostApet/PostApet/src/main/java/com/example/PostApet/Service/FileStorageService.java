@@ -1,54 +1,306 @@
 package com.example.PostApet.Service;
 
-import org.springframework.beans.factory.annotation.Autowired;
+import com.example.PostApet.exceptions.UploadRejectedException;
+import com.example.PostApet.util.ImageHeader;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StringUtils;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
 
+import java.io.BufferedInputStream;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.MalformedURLException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
+/**
+ * Uploaded files under file.upload-dir, served at /uploads/.
+ * <p>
+ * With file.content-addressed=true (the default) a file is stored once per
+ * content: its SHA-256, computed while it is copied in, names it under
+ * blobs/&lt;2 hex&gt;/&lt;2 hex&gt;/, and upload_blobs counts the references to it.
+ * Storing the same bytes again only adds a reference, and {@link #delete} only
+ * removes the file when the last reference goes. Files stored before, or with
+ * the mode off, keep the pet-images/&lt;id&gt;/&lt;uuid&gt; layout and are deleted directly.
+ */
+@Slf4j
 @Service
 public class FileStorageService {
+    private static final String BLOB_PREFIX = "/uploads/blobs/";
+    // JPEG metadata (EXIF, ICC) ahead of the frame header is held in memory up to this
+    private static final int MAX_HEADER_BYTES = 1024 * 1024;
+    private static final Pattern VARIANT_URL = Pattern.compile("(/uploads/(?:.*/)?)([^/]+)-(?:thumb|card|full)\\.jpg");
+
     private final Path rootLocation;
+    private final Path tempLocation;
+    private final JdbcTemplate jdbcTemplate;
+    // Reference counts commit on their own, whatever transaction the caller is in
+    private final TransactionTemplate referenceTransaction;
+    private final boolean contentAddressed;
+    private final long maxSize;
+    private final int maxDimension;
+    private final long maxPixels;
 
-    public FileStorageService(@Value("${file.upload-dir}") String uploadDir) throws IOException {
+    public FileStorageService(@Value("${file.upload-dir}") String uploadDir,
+                              @Value("${file.content-addressed:true}") boolean contentAddressed,
+                              @Value("${file.max-size:10MB}") DataSize maxSize,
+                              @Value("${file.max-dimension:10000}") int maxDimension,
+                              @Value("${file.max-pixels:40000000}") long maxPixels,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager) throws IOException {
         this.rootLocation = Paths.get(uploadDir).toAbsolutePath().normalize();
+        // Same file system as the blobs, so finished uploads can be moved in atomically
+        this.tempLocation = rootLocation.resolve(".tmp");
+        this.contentAddressed = contentAddressed;
+        this.maxSize = maxSize.toBytes();
+        this.maxDimension = maxDimension;
+        this.maxPixels = maxPixels;
+        this.jdbcTemplate = jdbcTemplate;
+        this.referenceTransaction = new TransactionTemplate(transactionManager);
+        this.referenceTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
         Files.createDirectories(rootLocation);
+        Files.createDirectories(tempLocation);
     }
 
-    public String store(MultipartFile file, String subdirectory) throws IOException {
-        if (file.isEmpty()) {
-            throw new IOException("Empty file");
+    /**
+     * Stores an image read from the stream and returns its /uploads/ URL
+     * (subdirectory only applies when content addressing is off). It is checked
+     * on the way in: the type comes from the magic bytes (never the client's file
+     * name), the dimensions from the header, and the copy stops at file.max-size.
+     * Nothing is written until the header has passed, and a file rejected later
+     * is only ever a temp file, so a bad upload never appears under /uploads.
+     */
+    public String store(InputStream source, String subdirectory) throws IOException {
+        MessageDigest sha256;
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        // The header bytes are read twice: once to inspect, then again by the copy
+        BufferedInputStream in = new BufferedInputStream(source, 8192);
+        in.mark(MAX_HEADER_BYTES);
+        ImageHeader header = inspect(in);
+        try {
+            in.reset();
+        } catch (IOException e) {
+            throw new UploadRejectedException(HttpStatus.BAD_REQUEST, "Image metadata is too large");
         }
 
-        String originalFilename = StringUtils.cleanPath(file.getOriginalFilename());
-        String extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-        String uniqueFilename = UUID.randomUUID() + extension;
+        Path temp = Files.createTempFile(tempLocation, "upload-", ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                copyLimited(new DigestInputStream(in, sha256), out);
+            }
+            if (!contentAddressed) {
+                Path targetDir = this.rootLocation.resolve(subdirectory);
+                Files.createDirectories(targetDir);
+                String uniqueFilename = UUID.randomUUID() + header.extension();
+                Files.move(temp, targetDir.resolve(uniqueFilename), StandardCopyOption.ATOMIC_MOVE);
+                return "/uploads/" + subdirectory + "/" + uniqueFilename;
+            }
+            return storeBlob(temp, HexFormat.of().formatHex(sha256.digest()), header.extension());
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
 
-        Path targetDir = this.rootLocation.resolve(subdirectory);
-        Files.createDirectories(targetDir);
+    private ImageHeader inspect(InputStream in) {
+        ImageHeader header;
+        try {
+            header = ImageHeader.read(in);
+        } catch (EOFException e) {
+            throw new UploadRejectedException(HttpStatus.BAD_REQUEST, "Truncated image");
+        } catch (IOException e) {
+            throw new UploadRejectedException(HttpStatus.UNSUPPORTED_MEDIA_TYPE,
+                    "Only JPEG, PNG, GIF and WebP images are accepted");
+        }
+        if (header.width() > maxDimension || header.height() > maxDimension || header.pixels() > maxPixels) {
+            throw new UploadRejectedException(HttpStatus.PAYLOAD_TOO_LARGE, "Image is larger than "
+                    + maxDimension + " pixels across or " + maxPixels + " pixels in total");
+        }
+        return header;
+    }
 
-        Path targetPath = targetDir.resolve(uniqueFilename);
-        Files.copy(file.getInputStream(), targetPath, StandardCopyOption.REPLACE_EXISTING);
+    private void copyLimited(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[8192];
+        long total = 0;
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            total += n;
+            if (total > maxSize) {
+                throw tooLarge();
+            }
+            out.write(buffer, 0, n);
+        }
+    }
 
-        return "/uploads/" + subdirectory + "/" + uniqueFilename;
+    private UploadRejectedException tooLarge() {
+        return new UploadRejectedException(HttpStatus.PAYLOAD_TOO_LARGE, "File is larger than " + maxSize + " bytes");
     }
 
+    // The upload_blobs row lock orders store and delete of the same bytes across instances:
+    // the upsert waits for a delete in progress, which removes the file before it commits,
+    // and a new row only commits once its file has been moved into place.
+    private String storeBlob(Path temp, String hash, String extension) throws IOException {
+        String url = BLOB_PREFIX + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + extension;
+        Path target = resolve(url);
+        long size = Files.size(temp);
+        try {
+            return referenceTransaction.execute(status -> {
+                // 1 row affected: inserted, the file is ours to place; 2: another reference to it
+                int affected = jdbcTemplate.update("INSERT INTO upload_blobs (hash, url, size, ref_count, created_at) "
+                        + "VALUES (?, ?, ?, 1, NOW(6)) ON DUPLICATE KEY UPDATE ref_count = ref_count + 1",
+                        hash, url, size);
+                if (affected != 1) {
+                    return jdbcTemplate.queryForObject("SELECT url FROM upload_blobs WHERE hash = ?", String.class, hash);
+                }
+                try {
+                    Files.createDirectories(target.getParent());
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e); // rolls the new row back
+                }
+                return url;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Drops one reference to the file, and the file itself (with its image
+     * variants) when no reference is left.
+     * <p>
+     * References are counted from {@link #store} on, outside the caller's transaction:
+     * a caller whose save fails after storing must delete the URL again.
+     */
     public void delete(String fileUrl) throws IOException {
-        if (fileUrl != null && fileUrl.startsWith("/uploads/")) {
-            Path filePath = rootLocation.resolve(fileUrl.substring("/uploads/".length()));
-            Files.deleteIfExists(filePath);
+        if (fileUrl == null || !fileUrl.startsWith("/uploads/")) {
+            return;
+        }
+        if (fileUrl.startsWith(BLOB_PREFIX)) {
+            String hash = blobHash(fileUrl);
+            try {
+                referenceTransaction.executeWithoutResult(status -> {
+                    jdbcTemplate.update("UPDATE upload_blobs SET ref_count = ref_count - 1 WHERE hash = ?", hash);
+                    if (jdbcTemplate.update("DELETE FROM upload_blobs WHERE hash = ? AND ref_count <= 0", hash) == 0) {
+                        return; // still referenced, or not a known blob
+                    }
+                    // Under the row lock, so a store of the same bytes waits for the file to be gone
+                    try {
+                        deleteWithVariants(fileUrl);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e); // keeps the reference rather than lose the file
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        } else {
+            deleteWithVariants(fileUrl);
         }
     }
+
+    /**
+     * {@link #delete} once the caller's transaction has committed, or straight away
+     * outside one, so a rolled-back change never loses a file its row still points to.
+     */
+    public void release(String fileUrl) {
+        if (fileUrl == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deleteQuietly(fileUrl);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deleteQuietly(fileUrl);
+            }
+        });
+    }
+
+    private void deleteQuietly(String fileUrl) {
+        try {
+            delete(fileUrl);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", fileUrl, e.getMessage());
+        }
+    }
+
+    private void deleteWithVariants(String fileUrl) throws IOException {
+        Files.deleteIfExists(resolve(fileUrl));
+        for (ImagePipeline.Variant variant : ImagePipeline.Variant.values()) {
+            Files.deleteIfExists(resolve(ImagePipeline.variantUrl(fileUrl, variant)));
+        }
+    }
+
+    private static String blobHash(String url) {
+        String name = url.substring(url.lastIndexOf('/') + 1);
+        int dot = name.indexOf('.');
+        return dot < 0 ? name : name.substring(0, dot);
+    }
+
+    /**
+     * The file behind an /uploads/... URL; refuses paths that leave the upload directory.
+     */
+    public Path resolve(String fileUrl) throws IOException {
+        if (fileUrl.startsWith("/uploads/")) {
+            Path file = rootLocation.resolve(fileUrl.substring("/uploads/".length())).normalize();
+            if (file.startsWith(rootLocation)) {
+                return file;
+            }
+        }
+        throw new IOException("Not an upload: " + fileUrl);
+    }
+
+    /**
+     * For the URL of an image variant that has not been written (yet), the original
+     * it is made from: /uploads/a/b-thumb.jpg -> uploads/a/b.png. Null when there is none.
+     */
+    public Path resolveOriginal(String variantUrl) throws IOException {
+        Matcher variant = VARIANT_URL.matcher(variantUrl);
+        if (!variant.matches()) {
+            return null;
+        }
+        Path directory = resolve(variant.group(1));
+        String prefix = variant.group(2) + ".";
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(prefix) && name.indexOf('.', prefix.length()) < 0;
+            }).findFirst().orElse(null);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
     public Resource loadAsResource(String filename) {
         try {
             Path file = rootLocation.resolve(filename);
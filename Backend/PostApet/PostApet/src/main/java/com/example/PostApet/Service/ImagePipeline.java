@@ -0,0 +1,302 @@
+package com.example.PostApet.Service;
+
+import com.example.PostApet.util.BlurHash;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * Resized copies of uploaded images, made in the background so the upload returns
+ * at once. Each original is decoded once (subsampled while decoding when it is far
+ * larger than needed), turned upright from its EXIF orientation, and written as
+ * JPEG variants next to it: name-thumb.jpg, name-card.jpg and name-full.jpg.
+ * The variants carry no metadata, so camera EXIF (GPS included) is not served.
+ * A BlurHash placeholder is computed from the thumbnail.
+ * <p>
+ * Until the variants exist, requests for them are answered with the original
+ * (see WebMvcConfig), so their URLs can be handed out straight away.
+ */
+@Slf4j
+@Service
+public class ImagePipeline {
+
+    public enum Variant {
+        FULL("full", 1600),
+        CARD("card", 480),
+        THUMB("thumb", 200);
+
+        private final String suffix;
+        private final int maxSize;
+
+        Variant(String suffix, int maxSize) {
+            this.suffix = suffix;
+            this.maxSize = maxSize;
+        }
+    }
+
+    private static final float JPEG_QUALITY = 0.82f;
+    private static final int PLACEHOLDER_SIZE = 32;
+    private static final int EXIF_SCAN_BYTES = 128 * 1024;
+
+    private final FileStorageService fileStorageService;
+    private final ThreadPoolTaskExecutor imageExecutor;
+
+    public ImagePipeline(FileStorageService fileStorageService,
+                         @Qualifier("imageExecutor") ThreadPoolTaskExecutor imageExecutor) {
+        this.fileStorageService = fileStorageService;
+        this.imageExecutor = imageExecutor;
+    }
+
+    /**
+     * URL of a variant of the image at url: /uploads/a/b.png -> /uploads/a/b-thumb.jpg.
+     */
+    public static String variantUrl(String url, Variant variant) {
+        int dot = url.lastIndexOf('.');
+        String base = dot > url.lastIndexOf('/') ? url.substring(0, dot) : url;
+        return base + "-" + variant.suffix + ".jpg";
+    }
+
+    public void submit(String url) {
+        submit(url, null);
+    }
+
+    /**
+     * Queues the image; onPlaceholder, if given, receives its BlurHash once the
+     * variants are written. A full queue leaves the image without variants.
+     */
+    public void submit(String url, Consumer<String> onPlaceholder) {
+        try {
+            imageExecutor.execute(() -> {
+                try {
+                    String placeholder = process(url);
+                    if (onPlaceholder != null) {
+                        onPlaceholder.accept(placeholder);
+                    }
+                } catch (Exception e) {
+                    log.warn("Could not make variants of {}: {}", url, e.getMessage());
+                }
+            });
+        } catch (TaskRejectedException e) {
+            log.warn("Image queue is full; {} is served without variants", url);
+        }
+    }
+
+    private String process(String url) throws IOException {
+        // A deduplicated upload whose variants were already made: only the placeholder is needed
+        Path thumb = fileStorageService.resolve(variantUrl(url, Variant.THUMB));
+        if (hasAllVariants(url)) {
+            BufferedImage image = ImageIO.read(thumb.toFile());
+            if (image != null) {
+                return BlurHash.encode(scale(toRgb(image), PLACEHOLDER_SIZE), 4, 3);
+            }
+        }
+
+        Path original = fileStorageService.resolve(url);
+        BufferedImage image = decode(original, Variant.FULL.maxSize);
+        if (image == null) {
+            throw new IOException("not a readable image");
+        }
+        image = orient(toRgb(image), exifOrientation(original));
+
+        // Largest first, each from the one before
+        for (Variant variant : Variant.values()) {
+            image = scale(image, variant.maxSize);
+            writeJpeg(image, fileStorageService.resolve(variantUrl(url, variant)));
+        }
+        return BlurHash.encode(scale(image, PLACEHOLDER_SIZE), 4, 3);
+    }
+
+    private boolean hasAllVariants(String url) throws IOException {
+        for (Variant variant : Variant.values()) {
+            if (!Files.exists(fileStorageService.resolve(variantUrl(url, variant)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static BufferedImage decode(Path file, int maxSize) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                // Keep at least twice the largest variant so the final resize is smooth
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int subsampling = Math.max(1, longest / (maxSize * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // JPEG has no alpha: transparent areas become white
+    private static BufferedImage toRgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB) {
+            return image;
+        }
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        g.drawImage(image, 0, 0, Color.WHITE, null);
+        g.dispose();
+        return rgb;
+    }
+
+    /**
+     * Fits the image within maxSize on its longest side, halving first so large
+     * reductions do not alias. Never enlarges.
+     */
+    private static BufferedImage scale(BufferedImage image, int maxSize) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double ratio = (double) maxSize / Math.max(width, height);
+        if (ratio >= 1) {
+            return image;
+        }
+        int targetWidth = Math.max(1, (int) Math.round(width * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(height * ratio));
+        BufferedImage current = image;
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(current, 0, 0, width, height, null);
+            g.dispose();
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private static BufferedImage orient(BufferedImage image, int orientation) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        // Maps each pixel of the stored image to where it is displayed (EXIF 2-8)
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h);
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w);
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, w);
+            default -> null;
+        };
+        if (transform == null) {
+            return image;
+        }
+        boolean swap = orientation >= 5;
+        BufferedImage oriented = new BufferedImage(swap ? h : w, swap ? w : h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = oriented.createGraphics();
+        g.drawImage(image, transform, null);
+        g.dispose();
+        return oriented;
+    }
+
+    /**
+     * The EXIF orientation tag of a JPEG, 1 (upright) when there is none.
+     */
+    private static int exifOrientation(Path file) throws IOException {
+        byte[] head;
+        try (InputStream in = Files.newInputStream(file)) {
+            head = in.readNBytes(EXIF_SCAN_BYTES);
+        }
+        if (head.length < 4 || (head[0] & 0xff) != 0xFF || (head[1] & 0xff) != 0xD8) {
+            return 1;
+        }
+        int pos = 2;
+        while (pos + 4 <= head.length && (head[pos] & 0xff) == 0xFF) {
+            int marker = head[pos + 1] & 0xff;
+            int length = ((head[pos + 2] & 0xff) << 8) | (head[pos + 3] & 0xff);
+            if (marker == 0xDA) {
+                break; // start of image data: no more metadata
+            }
+            int start = pos + 4;
+            if (marker == 0xE1 && start + 14 <= head.length && new String(head, start, 4).equals("Exif")) {
+                return tiffOrientation(head, start + 6, Math.min(head.length, pos + 2 + length));
+            }
+            pos += 2 + length;
+        }
+        return 1;
+    }
+
+    private static int tiffOrientation(byte[] data, int tiff, int end) {
+        boolean little = data[tiff] == 'I';
+        int ifd = tiff + readInt(data, tiff + 4, 4, little);
+        if (ifd + 2 > end) {
+            return 1;
+        }
+        int entries = readInt(data, ifd, 2, little);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > end) {
+                break;
+            }
+            if (readInt(data, entry, 2, little) == 0x0112) {
+                int orientation = readInt(data, entry + 8, 2, little);
+                return orientation >= 1 && orientation <= 8 ? orientation : 1;
+            }
+        }
+        return 1;
+    }
+
+    private static int readInt(byte[] data, int offset, int bytes, boolean little) {
+        int value = 0;
+        for (int i = 0; i < bytes; i++) {
+            int b = data[offset + (little ? bytes - 1 - i : i)] & 0xff;
+            value = (value << 8) | b;
+        }
+        return value;
+    }
+
+    // Written to a temporary file and moved into place, so a variant is never served half-written
+    private static void writeJpeg(BufferedImage image, Path target) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), "variant-", ".tmp");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(JPEG_QUALITY);
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+                writer.setOutput(out);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
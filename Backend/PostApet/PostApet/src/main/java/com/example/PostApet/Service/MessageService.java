@@ -14,6 +14,7 @@ import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import java.io.IOException;
 import java.time.LocalDateTime;
@@ -78,6 +79,7 @@ public class MessageService {
         }
     }
 
+    @Transactional(readOnly = true)
     public List<MessageDto> getConversation(Long petId, Long senderId, Long receiverId) {
         try {
             List<Message> messages = messageRepository.findByPetIdAndSenderIdAndReceiverIdOrderByTimestampAsc(
@@ -91,6 +93,7 @@ public class MessageService {
         }
     }
 
+    @Transactional(readOnly = true)
     public List<MessageDto> getUserMessages(Long userId) {
         try {
             List<Message> messages = messageRepository.findBySenderIdOrReceiverIdOrderByTimestampDesc(
@@ -104,6 +107,7 @@ public class MessageService {
         }
     }
 
+    @Transactional(readOnly = true)
     public Long getUnreadMessageCount(Long userId) {
         try {
             return messageRepository.countByReceiverIdAndIsReadFalse(userId);
@@ -126,6 +130,7 @@ public class MessageService {
         }
     }
 
+    @Transactional(readOnly = true)
     public List<ConversationDto> getUserConversations(Long userId) {
         List<Message> messages = messageRepository.findBySenderIdOrReceiverId(userId);
 
@@ -0,0 +1,143 @@
+package com.example.PostApet.Service;
+
+import com.example.PostApet.exceptions.UploadRejectedException;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.tomcat.util.http.fileupload.FileItemIterator;
+import org.apache.tomcat.util.http.fileupload.FileItemStream;
+import org.apache.tomcat.util.http.fileupload.FileUpload;
+import org.apache.tomcat.util.http.fileupload.FileUploadException;
+import org.apache.tomcat.util.http.fileupload.MultipartStream;
+import org.apache.tomcat.util.http.fileupload.impl.FileUploadIOException;
+import org.apache.tomcat.util.http.fileupload.impl.SizeException;
+import org.apache.tomcat.util.http.fileupload.servlet.ServletRequestContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * multipart/form-data read part by part as it arrives off the socket
+ * (spring.servlet.multipart.enabled=false). An image part goes straight into
+ * {@link FileStorageService#store(InputStream, String)}, so a bad header is
+ * refused after its first bytes and an accepted one is copied once, into the
+ * store's own temp file; nothing is spooled by the container first.
+ * <p>
+ * Text parts become strings; the field of a stored image maps to its URL, and an
+ * empty file part (no file chosen) is left out. Images already stored are
+ * deleted again if a later part fails.
+ */
+@Slf4j
+@Service
+public class MultipartFormReader {
+
+    private static final int MAX_FIELD_BYTES = 64 * 1024;
+    private static final int MAX_PARTS = 64;
+
+    private final FileStorageService fileStorageService;
+    private final long maxRequestSize;
+
+    public MultipartFormReader(FileStorageService fileStorageService,
+                               @Value("${file.max-size:10MB}") DataSize maxFileSize) {
+        this.fileStorageService = fileStorageService;
+        this.maxRequestSize = maxFileSize.toBytes() + (long) MAX_PARTS * MAX_FIELD_BYTES;
+    }
+
+    /**
+     * Reads the whole form. Parts named in imageFields are stored under
+     * subdirectory; any other part, file or not, is read as UTF-8 text. The first
+     * value of a repeated text field wins.
+     */
+    public Map<String, String> read(HttpServletRequest request, Set<String> imageFields, String subdirectory) throws IOException {
+        String contentType = request.getContentType();
+        if (contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("multipart/form-data")) {
+            throw new UploadRejectedException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "Expected multipart/form-data");
+        }
+        FileUpload upload = new FileUpload();
+        upload.setSizeMax(maxRequestSize);
+        upload.setFileCountMax(MAX_PARTS);
+
+        Map<String, String> fields = new HashMap<>();
+        List<String> stored = new ArrayList<>();
+        try {
+            FileItemIterator parts = upload.getItemIterator(new ServletRequestContext(request));
+            int count = 0;
+            while (parts.hasNext()) {
+                if (++count > MAX_PARTS) {
+                    throw new UploadRejectedException(HttpStatus.PAYLOAD_TOO_LARGE, "Too many form parts");
+                }
+                FileItemStream part = parts.next();
+                String name = part.getFieldName();
+                try (InputStream in = part.openStream()) {
+                    if (part.isFormField() || !imageFields.contains(name)) {
+                        String value = readText(in, name);
+                        fields.putIfAbsent(name, value);
+                    } else if (fields.containsKey(name)) {
+                        throw new UploadRejectedException(HttpStatus.BAD_REQUEST, "More than one " + name);
+                    } else {
+                        String url = storeImage(in, subdirectory);
+                        if (url != null) {
+                            stored.add(url);
+                            fields.put(name, url);
+                        }
+                    }
+                }
+            }
+        } catch (FileUploadException | FileUploadIOException | MultipartStream.MalformedStreamException e) {
+            discard(stored);
+            throw rejected(e);
+        } catch (IOException | RuntimeException e) {
+            discard(stored);
+            throw e;
+        }
+        return fields;
+    }
+
+    // null for an empty part: the form had the field but no file was chosen
+    private String storeImage(InputStream part, String subdirectory) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(part);
+        in.mark(1);
+        if (in.read() < 0) {
+            return null;
+        }
+        in.reset();
+        return fileStorageService.store(in, subdirectory);
+    }
+
+    private static String readText(InputStream in, String name) throws IOException {
+        byte[] bytes = in.readNBytes(MAX_FIELD_BYTES + 1);
+        if (bytes.length > MAX_FIELD_BYTES) {
+            throw new UploadRejectedException(HttpStatus.PAYLOAD_TOO_LARGE, name + " is too long");
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void discard(List<String> stored) {
+        for (String url : stored) {
+            try {
+                fileStorageService.delete(url);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not delete {} after a failed form", url, e);
+            }
+        }
+    }
+
+    private static UploadRejectedException rejected(IOException e) {
+        Throwable cause = e instanceof FileUploadIOException ? e.getCause() : e;
+        if (cause instanceof SizeException) {
+            return new UploadRejectedException(HttpStatus.PAYLOAD_TOO_LARGE, "Request is too large");
+        }
+        return new UploadRejectedException(HttpStatus.BAD_REQUEST, "Malformed multipart body");
+    }
+}
@@ -0,0 +1,344 @@
+package com.example.PostApet.Service;
+
+import com.example.PostApet.Model.PetModel;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * One bitmap per attribute value (species, breed, location, size, gender, fee-free,
+ * availability, regStatus), indexed by pet id, so a quiz or a facet count becomes
+ * a handful of ANDs.
+ * <p>
+ * A BitSet is as long as the highest id set in it, so this relies on ids staying
+ * close to the row count. They come from the pooled id_generators row in blocks of
+ * {@link com.example.PostApet.configs.IdGeneratorSeeder#ALLOCATION_SIZE}; a restart
+ * or another instance leaves at most the rest of one block unused, so the gaps
+ * grow with restarts, not with traffic. Ids beyond int range are not indexed.
+ */
+@Service
+public class PetAttributeIndex implements PetChangeListener {
+
+    public static final String SPECIES = "species";
+    public static final String SIZE = "size";
+    public static final String GENDER = "gender";
+    public static final String FEE_FREE = "feeFree";
+    public static final String AVAILABLE = "available";
+    public static final String REG_STATUS = "regStatus";
+    public static final String BREED = "breed";
+    public static final String LOCATION = "location";
+    public static final List<String> FACETS = List.of(SPECIES, BREED, GENDER, SIZE, LOCATION);
+
+    private static final String APPROVED = "approved";
+
+    // attribute -> normalized value -> pets having it
+    private final Map<String, Map<String, BitSet>> bitmaps = new HashMap<>();
+    // attribute -> normalized value -> number of approved pets, for unfiltered facet requests
+    private final Map<String, Map<String, Integer>> approvedCounts = new HashMap<>();
+    // normalized value -> value as first entered, for facet labels
+    private final Map<String, String> labels = new ConcurrentHashMap<>();
+    // petId -> attribute/value pairs it was indexed under, so an update can clear the old bits
+    private final Map<Integer, List<String[]>> indexedKeys = new HashMap<>();
+    // facet -> pet id -> ordinal of its value (0: none), so a filtered facet count is one
+    // walk over the matching pets rather than an AND per value
+    private final Map<String, int[]> facetOrdinals = new HashMap<>();
+    // facet -> normalized value -> ordinal, and the values by ordinal (index 0 unused)
+    private final Map<String, Map<String, Integer>> ordinals = new HashMap<>();
+    private final Map<String, List<String>> ordinalValues = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    @Override
+    public void onPetSaved(PetModel pet) {
+        if (pet.getId() == null || pet.getId() > Integer.MAX_VALUE) {
+            return;
+        }
+        int id = pet.getId().intValue();
+
+        List<String[]> keys = new ArrayList<>();
+        addKey(keys, SPECIES, pet.getSpecie());
+        addKey(keys, BREED, pet.getBreed());
+        addKey(keys, LOCATION, pet.getLocation());
+        addKey(keys, SIZE, pet.getSize());
+        addKey(keys, GENDER, pet.getGender());
+        addKey(keys, REG_STATUS, pet.getRegStatus());
+        addKey(keys, FEE_FREE, String.valueOf(PetChangeListener.isFeeFree(pet)));
+        addKey(keys, AVAILABLE, String.valueOf(!Boolean.FALSE.equals(pet.getAvailable())));
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            boolean approved = PetChangeListener.isApproved(pet);
+            for (String[] key : keys) {
+                bitmaps.computeIfAbsent(key[0], k -> new HashMap<>())
+                        .computeIfAbsent(key[1], k -> new BitSet())
+                        .set(id);
+                if (approved) {
+                    approvedCounts.computeIfAbsent(key[0], k -> new HashMap<>()).merge(key[1], 1, Integer::sum);
+                }
+                if (FACETS.contains(key[0])) {
+                    setOrdinal(key[0], id, ordinal(key[0], key[1]));
+                }
+            }
+            indexedKeys.put(id, keys);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onPetDeleted(long petId) {
+        if (petId > Integer.MAX_VALUE) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked((int) petId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onCatalogLoaded() {
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Intersection of the given attribute filters; a null value means "any".
+     */
+    public BitSet matchAll(Map<String, String> filters) {
+        lock.readLock().lock();
+        try {
+            BitSet result = null;
+            for (Map.Entry<String, String> filter : filters.entrySet()) {
+                if (filter.getValue() == null) {
+                    continue;
+                }
+                BitSet bits = bitmap(filter.getKey(), filter.getValue());
+                if (bits == null) {
+                    return new BitSet();
+                }
+                if (result == null) {
+                    result = (BitSet) bits.clone();
+                } else {
+                    result.and(bits);
+                }
+            }
+            if (result == null) {
+                // No filter at all: every indexed pet
+                result = new BitSet();
+                for (Integer id : indexedKeys.keySet()) {
+                    result.set(id);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranks the candidates by the summed weight of the optional criteria they satisfy,
+     * highest score first and newest pet first on ties, and returns at most limit ids.
+     */
+    public List<Long> topMatches(BitSet candidates, Map<String, String> criteria, Map<String, Double> weights, int limit) {
+        lock.readLock().lock();
+        try {
+            List<BitSet> criterionBits = new ArrayList<>();
+            List<Double> criterionWeights = new ArrayList<>();
+            for (Map.Entry<String, String> criterion : criteria.entrySet()) {
+                if (criterion.getValue() == null) {
+                    continue;
+                }
+                BitSet bits = bitmap(criterion.getKey(), criterion.getValue());
+                criterionBits.add(bits != null ? bits : new BitSet());
+                criterionWeights.add(weights.getOrDefault(criterion.getKey(), 1.0));
+            }
+
+            // Min-heap of the best `limit` (score, id) pairs seen so far
+            PriorityQueue<double[]> best = new PriorityQueue<>(limit + 1, (a, b) ->
+                    a[0] != b[0] ? Double.compare(a[0], b[0]) : Double.compare(a[1], b[1]));
+            for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+                double score = 0;
+                for (int i = 0; i < criterionBits.size(); i++) {
+                    if (criterionBits.get(i).get(id)) {
+                        score += criterionWeights.get(i);
+                    }
+                }
+                best.add(new double[]{score, id});
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+
+            List<Long> ids = new ArrayList<>(best.size());
+            while (!best.isEmpty()) {
+                ids.add(0, (long) best.poll()[1]);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts approved pets per value of each facet. Each facet is counted under all
+     * filters except its own, so the UI can still offer the sibling values of a
+     * selected facet. restrictTo, when not null, limits counting to those pets.
+     */
+    public Map<String, Map<String, Integer>> facetCounts(Map<String, String> filters, BitSet restrictTo) {
+        boolean unfiltered = restrictTo == null
+                && filters.values().stream().allMatch(value -> value == null || value.isBlank());
+
+        lock.readLock().lock();
+        try {
+            Map<String, Map<String, Integer>> result = new LinkedHashMap<>();
+            for (String facet : FACETS) {
+                Map<String, Integer> counts = new LinkedHashMap<>();
+                if (unfiltered) {
+                    approvedCounts.getOrDefault(facet, Map.of()).forEach((value, count) -> {
+                        if (count > 0) {
+                            counts.put(labels.get(value), count);
+                        }
+                    });
+                }
+                result.put(facet, counts);
+            }
+            if (!unfiltered) {
+                // Facets without a filter of their own share one base and one walk over it;
+                // a filtered facet needs its own base without that filter
+                List<String> shared = new ArrayList<>();
+                for (String facet : FACETS) {
+                    String value = filters.get(facet);
+                    if (value == null || value.isBlank()) {
+                        shared.add(facet);
+                    } else {
+                        countInto(result, facetBase(facet, filters, restrictTo), List.of(facet));
+                    }
+                }
+                if (!shared.isEmpty()) {
+                    countInto(result, facetBase(null, filters, restrictTo), shared);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet facetBase(String facet, Map<String, String> filters, BitSet restrictTo) {
+        BitSet approved = bitmaps.getOrDefault(REG_STATUS, Map.of()).get(APPROVED);
+        BitSet base = approved != null ? (BitSet) approved.clone() : new BitSet();
+        if (restrictTo != null) {
+            base.and(restrictTo);
+        }
+        for (Map.Entry<String, String> filter : filters.entrySet()) {
+            if (filter.getKey().equals(facet) || filter.getValue() == null || filter.getValue().isBlank()) {
+                continue;
+            }
+            BitSet bits = bitmap(filter.getKey(), filter.getValue());
+            if (bits == null) {
+                return new BitSet();
+            }
+            base.and(bits);
+        }
+        return base;
+    }
+
+    // One pass over base, counting each facet's value ordinals
+    private void countInto(Map<String, Map<String, Integer>> result, BitSet base, List<String> facets) {
+        int[][] values = new int[facets.size()][];
+        int[][] counts = new int[facets.size()][];
+        for (int f = 0; f < facets.size(); f++) {
+            values[f] = facetOrdinals.getOrDefault(facets.get(f), new int[0]);
+            counts[f] = new int[ordinalValues.getOrDefault(facets.get(f), List.of()).size()];
+        }
+        for (int id = base.nextSetBit(0); id >= 0; id = base.nextSetBit(id + 1)) {
+            for (int f = 0; f < values.length; f++) {
+                if (id < values[f].length && values[f][id] != 0) {
+                    counts[f][values[f][id]]++;
+                }
+            }
+        }
+        for (int f = 0; f < facets.size(); f++) {
+            Map<String, Integer> facetCounts = result.get(facets.get(f));
+            List<String> byOrdinal = ordinalValues.getOrDefault(facets.get(f), List.of());
+            for (int ordinal = 1; ordinal < counts[f].length; ordinal++) {
+                if (counts[f][ordinal] > 0) {
+                    facetCounts.put(labels.get(byOrdinal.get(ordinal)), counts[f][ordinal]);
+                }
+            }
+        }
+    }
+
+    private int ordinal(String facet, String value) {
+        List<String> byOrdinal = ordinalValues.computeIfAbsent(facet, k -> new ArrayList<>(List.of("")));
+        return ordinals.computeIfAbsent(facet, k -> new HashMap<>()).computeIfAbsent(value, v -> {
+            byOrdinal.add(v);
+            return byOrdinal.size() - 1;
+        });
+    }
+
+    private void setOrdinal(String facet, int id, int ordinal) {
+        int[] values = facetOrdinals.getOrDefault(facet, new int[0]);
+        if (id >= values.length) {
+            if (ordinal == 0) {
+                return;
+            }
+            values = Arrays.copyOf(values, Math.max(id + 1, values.length * 2));
+            facetOrdinals.put(facet, values);
+        }
+        values[id] = ordinal;
+    }
+
+    private BitSet bitmap(String attribute, String value) {
+        return bitmaps.getOrDefault(attribute, Map.of()).get(normalize(value));
+    }
+
+    private void removeLocked(int id) {
+        List<String[]> keys = indexedKeys.remove(id);
+        if (keys == null) {
+            return;
+        }
+        boolean approved = keys.stream()
+                .anyMatch(key -> key[0].equals(REG_STATUS) && key[1].equals(APPROVED));
+        for (String[] key : keys) {
+            BitSet bits = bitmaps.getOrDefault(key[0], Map.of()).get(key[1]);
+            if (bits != null) {
+                bits.clear(id);
+            }
+            if (approved) {
+                approvedCounts.getOrDefault(key[0], new HashMap<>()).merge(key[1], -1, Integer::sum);
+            }
+            if (FACETS.contains(key[0])) {
+                setOrdinal(key[0], id, 0);
+            }
+        }
+    }
+
+    private void addKey(List<String[]> keys, String attribute, String value) {
+        if (value != null && !value.isBlank()) {
+            String normalized = normalize(value);
+            labels.putIfAbsent(normalized, value.trim());
+            keys.add(new String[]{attribute, normalized});
+        }
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase();
+    }
+}
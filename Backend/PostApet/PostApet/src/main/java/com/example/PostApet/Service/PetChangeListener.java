@@ -0,0 +1,36 @@
+package com.example.PostApet.Service;
+
+import com.example.PostApet.Model.PetModel;
+
+/**
+ * Implemented by in-memory views of the pet catalog that PetService keeps in
+ * sync on every write. Called synchronously after the repository call returns.
+ */
+public interface PetChangeListener {
+
+    void onPetSaved(PetModel pet);
+
+    void onPetDeleted(long petId);
+
+    /**
+     * Called once the approved catalog has been replayed through onPetSaved at startup.
+     */
+    default void onCatalogLoaded() {
+    }
+
+    /**
+     * Whether the pet belongs in the public (approved) catalog; every view decides
+     * with this one test. Case-insensitive, as the catalog queries compare in MySQL.
+     */
+    static boolean isApproved(PetModel pet) {
+        return "Approved".equalsIgnoreCase(pet.getRegStatus());
+    }
+
+    /**
+     * Whether the pet costs nothing to adopt: flagged fee-free, or stored with no
+     * fee or a zero fee. The feeFree facet and the quiz fallback both use this.
+     */
+    static boolean isFeeFree(PetModel pet) {
+        return pet.isAdoptionFeeFree() || pet.getAdoptionFee() == null || pet.getAdoptionFee() == 0;
+    }
+}
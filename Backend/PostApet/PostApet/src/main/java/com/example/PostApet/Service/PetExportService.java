@@ -0,0 +1,141 @@
+package com.example.PostApet.Service;
+
+import com.example.PostApet.dto.PetDto;
+import com.example.PostApet.dto.PetRangeFilter;
+import com.example.PostApet.util.CsvWriter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the catalog as NDJSON or CSV, optionally gzipped, straight from the
+ * database cursor in {@link PetService#exportPets} to the response stream.
+ */
+@Service
+public class PetExportService {
+
+    public static final String NDJSON = "ndjson";
+    public static final String CSV = "csv";
+
+    // Rows between flushes, so the client sees progress on a long export
+    private static final int FLUSH_INTERVAL = PetService.EXPORT_CLEAR_INTERVAL;
+
+    private static final Map<String, Function<PetDto, Object>> CSV_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        CSV_COLUMNS.put("id", PetDto::getId);
+        CSV_COLUMNS.put("petName", PetDto::getPetName);
+        CSV_COLUMNS.put("specie", PetDto::getSpecie);
+        CSV_COLUMNS.put("breed", PetDto::getBreed);
+        CSV_COLUMNS.put("location", PetDto::getLocation);
+        CSV_COLUMNS.put("age", PetDto::getAge);
+        CSV_COLUMNS.put("ageMonths", PetDto::getAgeMonths);
+        CSV_COLUMNS.put("gender", PetDto::getGender);
+        CSV_COLUMNS.put("size", PetDto::getSize);
+        CSV_COLUMNS.put("regStatus", PetDto::getRegStatus);
+        CSV_COLUMNS.put("available", PetDto::getAvailable);
+        CSV_COLUMNS.put("reason", PetDto::getReason);
+        CSV_COLUMNS.put("ifTemp", PetDto::getIfTemp);
+        CSV_COLUMNS.put("justify", PetDto::getJustify);
+        CSV_COLUMNS.put("vaccinationStatus", PetDto::getVaccinationStatus);
+        CSV_COLUMNS.put("colorMarkings", PetDto::getColorMarkings);
+        CSV_COLUMNS.put("spayedNeutered", PetDto::isSpayedNeutered);
+        CSV_COLUMNS.put("medicalHistory", PetDto::getMedicalHistory);
+        CSV_COLUMNS.put("behavior", PetDto::getBehavior);
+        CSV_COLUMNS.put("specialNeeds", PetDto::getSpecialNeeds);
+        CSV_COLUMNS.put("adoptionFee", PetDto::getAdoptionFee);
+        CSV_COLUMNS.put("adoptionFeeFree", PetDto::isAdoptionFeeFree);
+        CSV_COLUMNS.put("physicalStatus", PetDto::getPhysicalStatus);
+        CSV_COLUMNS.put("docName", PetDto::getDocName);
+        CSV_COLUMNS.put("docStatus", PetDto::getDocStatus);
+        CSV_COLUMNS.put("totalCost", PetDto::getTotalCost);
+        CSV_COLUMNS.put("discount", PetDto::getDiscount);
+        CSV_COLUMNS.put("netCost", PetDto::getNetCost);
+        CSV_COLUMNS.put("photoUrl", PetDto::getPhotoUrl);
+        CSV_COLUMNS.put("ownerId", PetDto::getOwnerId);
+        CSV_COLUMNS.put("ownerName", PetDto::getOwnerName);
+        CSV_COLUMNS.put("ownerProfileImage", PetDto::getOwnerProfileImage);
+        CSV_COLUMNS.put("contactEmail", PetDto::getContactEmail);
+        CSV_COLUMNS.put("contactPhoneNumber", PetDto::getContactPhoneNumber);
+        CSV_COLUMNS.put("nic", PetDto::getNic);
+    }
+
+    private final PetService petService;
+    private final ObjectMapper objectMapper;
+
+    public PetExportService(PetService petService, ObjectMapper objectMapper) {
+        this.petService = petService;
+        this.objectMapper = objectMapper;
+    }
+
+    public void export(
+            String format,
+            boolean gzip,
+            String status,
+            String specie,
+            String breed,
+            String gender,
+            String location,
+            String search,
+            PetRangeFilter range,
+            OutputStream out) throws IOException {
+
+        OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+        if (CSV.equals(format)) {
+            writeCsv(target, status, specie, breed, gender, location, search, range);
+        } else {
+            writeNdjson(target, status, specie, breed, gender, location, search, range);
+        }
+        if (gzip) {
+            ((GZIPOutputStream) target).finish();
+        }
+        out.flush();
+    }
+
+    private void writeNdjson(OutputStream out, String status, String specie, String breed,
+                             String gender, String location, String search,
+                             PetRangeFilter range) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        long[] rows = {0};
+        petService.exportPets(status, specie, breed, gender, location, search, range, pet -> {
+            objectMapper.writeValue(json, pet);
+            json.writeRaw('\n');
+            if (++rows[0] % FLUSH_INTERVAL == 0) {
+                json.flush();
+            }
+        });
+        json.close();
+    }
+
+    private void writeCsv(OutputStream out, String status, String specie, String breed,
+                          String gender, String location, String search,
+                          PetRangeFilter range) throws IOException {
+        CsvWriter csv = new CsvWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+        csv.writeRecord(new ArrayList<>(CSV_COLUMNS.keySet()));
+        long[] rows = {0};
+        petService.exportPets(status, specie, breed, gender, location, search, range, pet -> {
+            List<Object> record = new ArrayList<>(CSV_COLUMNS.size());
+            for (Function<PetDto, Object> column : CSV_COLUMNS.values()) {
+                record.add(column.apply(pet));
+            }
+            csv.writeRecord(record);
+            if (++rows[0] % FLUSH_INTERVAL == 0) {
+                csv.flush();
+            }
+        });
+        csv.flush();
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.PostApet.Service;
+
+import com.example.PostApet.Model.PetModel;
+import com.example.PostApet.util.Gazetteer;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Approved, available pets grouped by coordinate, with the coordinates bucketed
+ * in a CELL_DEGREES grid. Listings are geocoded to gazetteer places, so a million
+ * pets share a few hundred distinct points: a radius query looks at the points in
+ * the covering cells, sorts those by distance, and then takes pets from the nearest
+ * points until the limit is reached, without touching the pets it does not return.
+ */
+@Service
+public class PetGeoIndex implements PetChangeListener {
+
+    private static final double CELL_DEGREES = 0.5;
+    private static final double KM_PER_DEGREE = 111.32;
+
+    public record Hit(long id, double distanceKm) {
+    }
+
+    private record Point(double latitude, double longitude) {
+    }
+
+    private record Candidate(Point point, double distanceKm) {
+    }
+
+    private final Map<Long, Point> pointOf = new HashMap<>();
+    // point -> pets there, iterated newest first
+    private final Map<Point, TreeSet<Long>> petsAt = new HashMap<>();
+    private final Map<Long, List<Point>> cells = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    @Override
+    public void onPetSaved(PetModel pet) {
+        if (pet.getId() == null) {
+            return;
+        }
+        if (!PetChangeListener.isApproved(pet) || Boolean.FALSE.equals(pet.getAvailable())
+                || pet.getLatitude() == null || pet.getLongitude() == null) {
+            onPetDeleted(pet.getId());
+            return;
+        }
+        Point point = new Point(pet.getLatitude(), pet.getLongitude());
+        lock.writeLock().lock();
+        try {
+            removeLocked(pet.getId());
+            pointOf.put(pet.getId(), point);
+            petsAt.computeIfAbsent(point, p -> {
+                cells.computeIfAbsent(cell(p.latitude(), p.longitude()), c -> new ArrayList<>()).add(p);
+                return new TreeSet<>(Comparator.reverseOrder());
+            }).add(pet.getId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onPetDeleted(long petId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(petId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onCatalogLoaded() {
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Pets within radiusKm of the given point, nearest first and newest first at
+     * the same distance. allowed, when not null, limits the result to those ids.
+     */
+    public List<Hit> near(double latitude, double longitude, double radiusKm, BitSet allowed, int limit) {
+        double latSpan = radiusKm / KM_PER_DEGREE;
+        double lonSpan = radiusKm / (KM_PER_DEGREE * Math.max(Math.cos(Math.toRadians(latitude)), 0.01));
+        return search(latitude - latSpan, latitude + latSpan, longitude - lonSpan, longitude + lonSpan,
+                latitude, longitude, radiusKm, allowed, limit);
+    }
+
+    /**
+     * Pets inside the box, sorted by distance from (latitude, longitude).
+     */
+    public List<Hit> within(double minLatitude, double maxLatitude, double minLongitude, double maxLongitude,
+                            double latitude, double longitude, BitSet allowed, int limit) {
+        return search(minLatitude, maxLatitude, minLongitude, maxLongitude,
+                latitude, longitude, Double.POSITIVE_INFINITY, allowed, limit);
+    }
+
+    private List<Hit> search(double minLatitude, double maxLatitude, double minLongitude, double maxLongitude,
+                             double latitude, double longitude, double radiusKm, BitSet allowed, int limit) {
+        minLatitude = Math.max(minLatitude, -90);
+        maxLatitude = Math.min(maxLatitude, 90);
+        minLongitude = Math.max(minLongitude, -180);
+        maxLongitude = Math.min(maxLongitude, 180);
+        lock.readLock().lock();
+        try {
+            List<Candidate> candidates = new ArrayList<>();
+            for (long row = cellIndex(minLatitude); row <= cellIndex(maxLatitude); row++) {
+                for (long column = cellIndex(minLongitude); column <= cellIndex(maxLongitude); column++) {
+                    for (Point point : cells.getOrDefault(key(row, column), List.of())) {
+                        if (point.latitude() < minLatitude || point.latitude() > maxLatitude
+                                || point.longitude() < minLongitude || point.longitude() > maxLongitude) {
+                            continue;
+                        }
+                        double distance = Gazetteer.distanceKm(latitude, longitude, point.latitude(), point.longitude());
+                        if (distance <= radiusKm) {
+                            candidates.add(new Candidate(point, distance));
+                        }
+                    }
+                }
+            }
+            candidates.sort(Comparator.comparingDouble(Candidate::distanceKm));
+
+            List<Hit> hits = new ArrayList<>(Math.min(limit, 256));
+            for (Candidate candidate : candidates) {
+                for (Long id : petsAt.get(candidate.point())) {
+                    if (allowed != null && (id > Integer.MAX_VALUE || !allowed.get(id.intValue()))) {
+                        continue;
+                    }
+                    hits.add(new Hit(id, candidate.distanceKm()));
+                    if (hits.size() == limit) {
+                        return hits;
+                    }
+                }
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(long petId) {
+        Point point = pointOf.remove(petId);
+        if (point == null) {
+            return;
+        }
+        TreeSet<Long> pets = petsAt.get(point);
+        pets.remove(petId);
+        if (pets.isEmpty()) {
+            petsAt.remove(point);
+            long cell = cell(point.latitude(), point.longitude());
+            List<Point> points = cells.get(cell);
+            points.remove(point);
+            if (points.isEmpty()) {
+                cells.remove(cell);
+            }
+        }
+    }
+
+    private static long cell(double latitude, double longitude) {
+        return key(cellIndex(latitude), cellIndex(longitude));
+    }
+
+    private static long cellIndex(double degrees) {
+        return (long) Math.floor(degrees / CELL_DEGREES);
+    }
+
+    private static long key(long row, long column) {
+        return (row << 32) ^ (column & 0xffffffffL);
+    }
+}
@@ -0,0 +1,351 @@
+package com.example.PostApet.Service;
+
+import com.example.PostApet.Model.PetModel;
+import com.example.PostApet.Model.User;
+import com.example.PostApet.Repository.UserRepository;
+import com.example.PostApet.dto.ImportJobDto;
+import com.example.PostApet.util.CsvReader;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Bulk import of pet listings from CSV (header row required) or NDJSON, one
+ * listing per row with the same fields as POST /add. The upload is spooled to a
+ * temp file and parsed row by row on the import executor, so memory stays at one
+ * chunk of pets no matter how large the file is. Valid rows are inserted
+ * CHUNK_SIZE at a time; invalid rows are reported with their line number.
+ */
+@Slf4j
+@Service
+public class PetImportService {
+
+    public static final String CSV = "csv";
+    public static final String NDJSON = "ndjson";
+    public static final int CHUNK_SIZE = 500;
+    public static final int MAX_REPORTED_ERRORS = 100;
+    private static final int MAX_KEPT_JOBS = 100;
+    private static final int MAX_FIELD_LENGTH = 255;
+
+    private static final List<String> REQUIRED = List.of("petName", "specie", "breed", "location", "age", "gender");
+    private static final Set<String> BOOLEANS = Set.of("spayedNeutered", "adoptionFeeFree");
+
+    private final PetService petService;
+    private final UserRepository userRepository;
+    private final EmailService emailService;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolTaskExecutor importExecutor;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    private record Row(int line, Map<String, String> values, String error) {
+    }
+
+    private interface RowSource {
+        Row next() throws IOException;
+    }
+
+    private static class Job {
+        final String id = UUID.randomUUID().toString();
+        final String format;
+        final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        volatile String status = "QUEUED";
+        volatile long rowsRead;
+        volatile long imported;
+        volatile long rejected;
+        volatile LocalDateTime startedAt;
+        volatile LocalDateTime finishedAt;
+
+        Job(String format) {
+            this.format = format;
+        }
+
+        void reject(String where, String reason, int rows) {
+            rejected += rows;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(where + ": " + reason);
+            }
+        }
+
+        ImportJobDto toDto() {
+            List<String> errorsCopy;
+            synchronized (errors) {
+                errorsCopy = List.copyOf(errors);
+            }
+            return new ImportJobDto(id, status, format, rowsRead, imported, rejected, errorsCopy, startedAt, finishedAt);
+        }
+    }
+
+    public PetImportService(PetService petService,
+                            UserRepository userRepository,
+                            EmailService emailService,
+                            ObjectMapper objectMapper,
+                            @Qualifier("importExecutor") ThreadPoolTaskExecutor importExecutor) {
+        this.petService = petService;
+        this.userRepository = userRepository;
+        this.emailService = emailService;
+        this.objectMapper = objectMapper;
+        this.importExecutor = importExecutor;
+    }
+
+    /**
+     * Copies the upload to a temp file and queues the import. Throws
+     * RejectedExecutionException when too many imports are already queued.
+     */
+    public ImportJobDto start(InputStream body, String format, String ownerEmail) throws IOException {
+        User owner = userRepository.findFirstByEmail(ownerEmail)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        Path file = Files.createTempFile("pet-import-", "." + format);
+        try {
+            Files.copy(body, file, StandardCopyOption.REPLACE_EXISTING);
+            Job job = new Job(format);
+            evictFinishedJobs();
+            jobs.put(job.id, job);
+            try {
+                importExecutor.execute(() -> run(job, file, owner));
+            } catch (RejectedExecutionException e) {
+                jobs.remove(job.id);
+                throw e;
+            }
+            return job.toDto();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    public ImportJobDto getJob(String jobId) {
+        Job job = jobs.get(jobId);
+        return job != null ? job.toDto() : null;
+    }
+
+    private void run(Job job, Path file, User owner) {
+        job.status = "RUNNING";
+        job.startedAt = LocalDateTime.now();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            RowSource rows = CSV.equals(job.format) ? csvRows(reader) : ndjsonRows(reader);
+            List<PetModel> chunk = new ArrayList<>(CHUNK_SIZE);
+            List<Integer> chunkLines = new ArrayList<>(CHUNK_SIZE);
+            Row row;
+            while ((row = rows.next()) != null) {
+                job.rowsRead++;
+                if (row.error() != null) {
+                    job.reject("line " + row.line(), row.error(), 1);
+                    continue;
+                }
+                try {
+                    chunk.add(toPet(row.values(), owner));
+                    chunkLines.add(row.line());
+                } catch (IllegalArgumentException e) {
+                    job.reject("line " + row.line(), e.getMessage(), 1);
+                }
+                if (chunk.size() == CHUNK_SIZE) {
+                    flush(job, chunk, chunkLines);
+                }
+            }
+            flush(job, chunk, chunkLines);
+            job.status = "COMPLETED";
+        } catch (IOException | RuntimeException e) {
+            log.error("Pet import {} failed", job.id, e);
+            job.reject("import", e.getMessage(), 0);
+            job.status = "FAILED";
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete import file {}", file, e);
+            }
+        }
+
+        emailService.sendEmailAsync(owner.getEmail(),
+                "Adoption Post Import " + (job.status.equals("COMPLETED") ? "Finished" : "Failed"),
+                "Your import has finished: " + job.imported + " adoption posts created and pending approval, "
+                        + job.rejected + " rows rejected.");
+    }
+
+    // One transaction per chunk; a chunk the database refuses is reported and skipped
+    private void flush(Job job, List<PetModel> chunk, List<Integer> chunkLines) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            petService.savePets(chunk);
+            job.imported += chunk.size();
+        } catch (RuntimeException e) {
+            log.warn("Pet import {} could not save a chunk", job.id, e);
+            job.reject("lines " + chunkLines.get(0) + "-" + chunkLines.get(chunkLines.size() - 1),
+                    "could not be saved: " + e.getMessage(), chunk.size());
+        }
+        chunk.clear();
+        chunkLines.clear();
+    }
+
+    /**
+     * A new listing owned by owner from field values as in POST /add; an invalid or
+     * missing field is an IllegalArgumentException naming it.
+     */
+    public PetModel toPet(Map<String, String> values, User owner) {
+        for (String field : REQUIRED) {
+            if (blank(values.get(field))) {
+                throw new IllegalArgumentException(field + " is required");
+            }
+        }
+        for (Map.Entry<String, String> value : values.entrySet()) {
+            if (value.getValue() != null && value.getValue().length() > MAX_FIELD_LENGTH) {
+                throw new IllegalArgumentException(value.getKey() + " is longer than " + MAX_FIELD_LENGTH + " characters");
+            }
+        }
+        Map<String, Boolean> flags = new HashMap<>();
+        for (String field : BOOLEANS) {
+            flags.put(field, parseBoolean(field, values.get(field)));
+        }
+        double fee = parseFee(values.get("adoptionFee"));
+
+        PetModel pet = new PetModel();
+        pet.setPetName(values.get("petName").trim());
+        pet.setSpecie(values.get("specie").trim());
+        pet.setBreed(values.get("breed").trim());
+        pet.setLocation(values.get("location").trim());
+        pet.setAge(values.get("age").trim());
+        pet.setGender(values.get("gender").trim());
+        pet.setReason(values.get("reason"));
+        pet.setIfTemp(values.get("ifTemp"));
+        pet.setJustify(values.get("justify"));
+        pet.setVaccinationStatus(values.get("vaccinationStatus"));
+        pet.setColorMarkings(values.get("colorMarkings"));
+        pet.setSize(values.get("size"));
+        pet.setSpayedNeutered(flags.get("spayedNeutered"));
+        pet.setMedicalHistory(values.get("medicalHistory"));
+        pet.setBehavior(values.get("behavior"));
+        pet.setSpecialNeeds(values.get("specialNeeds"));
+        pet.setAdoptionFeeFree(flags.get("adoptionFeeFree"));
+        pet.setAdoptionFee(flags.get("adoptionFeeFree") ? 0 : fee);
+
+        // Same owner and contact details as a listing created through POST /add
+        pet.setUser(owner);
+        pet.setContactEmail(owner.getEmail());
+        pet.setContactPhoneNumber(owner.getPhone());
+        pet.setOwnerName(owner.getName());
+        pet.setNic(owner.getNic());
+        return pet;
+    }
+
+    private RowSource csvRows(BufferedReader reader) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.readRecord();
+        if (header == null) {
+            return () -> null;
+        }
+        List<String> columns = header.stream().map(String::trim).toList();
+        return () -> {
+            List<String> record = csv.readRecord();
+            if (record == null) {
+                return null;
+            }
+            if (record.size() != columns.size()) {
+                return new Row(csv.getRecordLine(), null,
+                        "expected " + columns.size() + " columns but found " + record.size());
+            }
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < columns.size(); i++) {
+                values.put(columns.get(i), record.get(i).isEmpty() ? null : record.get(i));
+            }
+            return new Row(csv.getRecordLine(), values, null);
+        };
+    }
+
+    private RowSource ndjsonRows(BufferedReader reader) {
+        int[] lineNumber = {0};
+        return () -> {
+            String line;
+            do {
+                line = reader.readLine();
+                lineNumber[0]++;
+            } while (line != null && line.isBlank());
+            if (line == null) {
+                return null;
+            }
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(line);
+            } catch (JsonProcessingException e) {
+                return new Row(lineNumber[0], null, "malformed JSON: " + e.getOriginalMessage());
+            }
+            if (!node.isObject()) {
+                return new Row(lineNumber[0], null, "expected a JSON object");
+            }
+            Map<String, String> values = new HashMap<>();
+            for (Iterator<Map.Entry<String, JsonNode>> fields = node.fields(); fields.hasNext(); ) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                values.put(field.getKey(), field.getValue().isNull() ? null : field.getValue().asText());
+            }
+            return new Row(lineNumber[0], values, null);
+        };
+    }
+
+    private void evictFinishedJobs() {
+        if (jobs.size() < MAX_KEPT_JOBS) {
+            return;
+        }
+        jobs.values().stream()
+                .filter(job -> job.finishedAt != null)
+                .sorted((a, b) -> a.finishedAt.compareTo(b.finishedAt))
+                .limit(jobs.size() - MAX_KEPT_JOBS + 1)
+                .toList()
+                .forEach(job -> jobs.remove(job.id));
+    }
+
+    private static boolean parseBoolean(String field, String value) {
+        if (blank(value)) {
+            return false;
+        }
+        return switch (value.trim().toLowerCase()) {
+            case "true", "yes", "1" -> true;
+            case "false", "no", "0" -> false;
+            default -> throw new IllegalArgumentException(field + " must be true or false");
+        };
+    }
+
+    private static double parseFee(String value) {
+        if (blank(value)) {
+            return 0;
+        }
+        try {
+            double fee = Double.parseDouble(value.trim());
+            if (fee < 0 || Double.isNaN(fee) || Double.isInfinite(fee)) {
+                throw new IllegalArgumentException("adoptionFee must be a non-negative number");
+            }
+            return fee;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("adoptionFee must be a number");
+        }
+    }
+
+    private static boolean blank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,330 @@
+package com.example.PostApet.Service;
+
+import com.example.PostApet.Model.PetModel;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps a feature vector per approved, available pet (breed, size, age bucket,
+ * gender, fee bucket, vaccination, behavior tokens) and a top-K neighbour list
+ * per pet within its species, scored by weighted Jaccard similarity.
+ * <p>
+ * Every list is computed once the catalog has loaded and then patched in place:
+ * a write rescores the changed pet against its species once and moves it within
+ * (or into, or out of) each list, so a request is an O(K) lookup under a read
+ * lock. A list holds up to {@link #CAPACITY} entries plus a floor, the best
+ * score any pet left out of it can have; entries leaving the list eat into the
+ * spare capacity, and only a list left with fewer than K certain entries is
+ * recomputed from its species.
+ */
+@Service
+public class PetRecommendationIndex implements PetChangeListener {
+
+    public static final int K = 16;
+    // Spare entries absorb neighbours that leave a list without a rescan
+    static final int CAPACITY = 2 * K;
+
+    private static final double BREED_WEIGHT = 3.0;
+    private static final double SIZE_WEIGHT = 2.0;
+    private static final double AGE_WEIGHT = 2.0;
+    private static final double GENDER_WEIGHT = 1.0;
+    private static final double FEE_WEIGHT = 1.0;
+    private static final double VACCINATION_WEIGHT = 1.0;
+    private static final double BEHAVIOR_WEIGHT = 0.5;
+
+    private final Map<String, Integer> featureIds = new HashMap<>();
+    private final List<Double> featureWeights = new ArrayList<>();
+
+    private final Map<Long, int[]> features = new HashMap<>();
+    private final Map<Long, Double> featureTotals = new HashMap<>();
+    private final Map<Long, String> speciesOf = new HashMap<>();
+    private final Map<String, TreeSet<Long>> bySpecies = new HashMap<>();
+    // Neighbour lists, best first; kept for every pet once the catalog has loaded
+    private final Map<Long, Neighbours> neighbours = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private boolean ready;
+
+    private record Neighbour(long id, double score) {
+    }
+
+    // entries hold every pet scoring above floor; pets left out score at most floor
+    private static final class Neighbours {
+        final List<Neighbour> entries = new ArrayList<>(CAPACITY + 1);
+        double floor = Double.NEGATIVE_INFINITY;
+    }
+
+    @Override
+    public void onPetSaved(PetModel pet) {
+        if (pet.getId() == null) {
+            return;
+        }
+        long id = pet.getId();
+        if (!PetChangeListener.isApproved(pet) || Boolean.FALSE.equals(pet.getAvailable())
+                || pet.getSpecie() == null) {
+            onPetDeleted(id);
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            String species = pet.getSpecie().trim().toLowerCase();
+            if (!species.equals(speciesOf.get(id))) {
+                removeLocked(id);
+            }
+            int[] vector = vectorize(pet);
+            features.put(id, vector);
+            featureTotals.put(id, total(vector));
+            speciesOf.put(id, species);
+            TreeSet<Long> group = bySpecies.computeIfAbsent(species, s -> new TreeSet<>());
+            group.add(id);
+            if (!ready) {
+                return; // lists are built in one pass by onCatalogLoaded
+            }
+
+            // The one rescan of the species: the pet's own list, and its new place in every other
+            List<Neighbour> scored = new ArrayList<>(group.size());
+            for (Long other : group) {
+                if (other != id) {
+                    scored.add(new Neighbour(other, similarity(id, other)));
+                }
+            }
+            neighbours.put(id, top(scored));
+            for (Neighbour score : scored) {
+                Neighbours list = neighbours.get(score.id());
+                list.entries.removeIf(n -> n.id() == id);
+                offer(list, new Neighbour(id, score.score()));
+                refillIfShort(score.id(), list, group);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onPetDeleted(long petId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(petId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onCatalogLoaded() {
+        lock.writeLock().lock();
+        try {
+            for (TreeSet<Long> group : bySpecies.values()) {
+                for (Long id : group) {
+                    neighbours.put(id, compute(id, group));
+                }
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Most similar pets of the same species, best first; at most K of them.
+     */
+    public List<Long> similarTo(long petId, int limit) {
+        lock.readLock().lock();
+        try {
+            String species = speciesOf.get(petId);
+            if (species == null) {
+                return Collections.emptyList();
+            }
+            // Before the catalog has loaded there are no lists yet: score the species directly
+            List<Neighbour> list = ready ? neighbours.get(petId).entries : compute(petId, bySpecies.get(species)).entries;
+            return list.stream()
+                    .limit(Math.min(limit, K))
+                    .map(Neighbour::id)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Newest pets of the species, for callers without a reference pet.
+     */
+    public List<Long> newest(String specie, Long exclude, int limit) {
+        lock.readLock().lock();
+        try {
+            TreeSet<Long> group = specie != null ? bySpecies.get(specie.trim().toLowerCase()) : null;
+            if (group == null) {
+                return Collections.emptyList();
+            }
+            return group.descendingSet().stream()
+                    .filter(id -> !id.equals(exclude))
+                    .limit(limit)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(long petId) {
+        lock.readLock().lock();
+        try {
+            return features.containsKey(petId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Neighbours compute(long petId, Set<Long> group) {
+        List<Neighbour> scored = new ArrayList<>(group.size());
+        for (Long other : group) {
+            if (other != petId) {
+                scored.add(new Neighbour(other, similarity(petId, other)));
+            }
+        }
+        return top(scored);
+    }
+
+    // The best CAPACITY of a full scan; the floor is the best score left out
+    private static Neighbours top(List<Neighbour> scored) {
+        scored.sort(Comparator.comparingDouble(Neighbour::score).reversed().thenComparingLong(Neighbour::id));
+        Neighbours list = new Neighbours();
+        list.entries.addAll(scored.subList(0, Math.min(CAPACITY, scored.size())));
+        if (scored.size() > CAPACITY) {
+            list.floor = scored.get(CAPACITY).score();
+        }
+        return list;
+    }
+
+    // Inserts a candidate that scores above the floor; one pushed off the end raises it
+    private static void offer(Neighbours list, Neighbour candidate) {
+        if (candidate.score() <= list.floor) {
+            return;
+        }
+        List<Neighbour> entries = list.entries;
+        int position = 0;
+        while (position < entries.size() && entries.get(position).score() >= candidate.score()) {
+            position++;
+        }
+        entries.add(position, candidate);
+        if (entries.size() > CAPACITY) {
+            list.floor = Math.max(list.floor, entries.remove(entries.size() - 1).score());
+        }
+    }
+
+    // Below K certain entries with pets possibly left out: rescan this one list
+    private void refillIfShort(long petId, Neighbours list, Set<Long> group) {
+        if (list.entries.size() < K && list.floor != Double.NEGATIVE_INFINITY) {
+            neighbours.put(petId, compute(petId, group));
+        }
+    }
+
+    private void removeLocked(long petId) {
+        String species = speciesOf.remove(petId);
+        features.remove(petId);
+        featureTotals.remove(petId);
+        neighbours.remove(petId);
+        if (species == null) {
+            return;
+        }
+        TreeSet<Long> group = bySpecies.get(species);
+        group.remove(petId);
+        if (!ready) {
+            return;
+        }
+        for (Long other : group) {
+            Neighbours list = neighbours.get(other);
+            if (list.entries.removeIf(n -> n.id() == petId)) {
+                refillIfShort(other, list, group);
+            }
+        }
+    }
+
+    // Weighted Jaccard over the sorted feature id arrays
+    private double similarity(long a, long b) {
+        int[] x = features.get(a);
+        int[] y = features.get(b);
+        double shared = 0;
+        int i = 0;
+        int j = 0;
+        while (i < x.length && j < y.length) {
+            if (x[i] == y[j]) {
+                shared += featureWeights.get(x[i]);
+                i++;
+                j++;
+            } else if (x[i] < y[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        double union = featureTotals.get(a) + featureTotals.get(b) - shared;
+        return union == 0 ? 0 : shared / union;
+    }
+
+    private int[] vectorize(PetModel pet) {
+        Set<Integer> ids = new HashSet<>();
+        addFeature(ids, "breed", pet.getBreed(), BREED_WEIGHT);
+        addFeature(ids, "size", pet.getSize(), SIZE_WEIGHT);
+        addFeature(ids, "age", ageBucket(pet.getAgeMonths()), AGE_WEIGHT);
+        addFeature(ids, "gender", pet.getGender(), GENDER_WEIGHT);
+        addFeature(ids, "fee", feeBucket(pet), FEE_WEIGHT);
+        addFeature(ids, "vaccination", pet.getVaccinationStatus(), VACCINATION_WEIGHT);
+        for (String token : PetSearchIndex.tokenize(pet.getBehavior())) {
+            addFeature(ids, "behavior", token, BEHAVIOR_WEIGHT);
+        }
+        int[] vector = ids.stream().mapToInt(Integer::intValue).toArray();
+        Arrays.sort(vector);
+        return vector;
+    }
+
+    private void addFeature(Set<Integer> ids, String name, String value, double weight) {
+        if (value == null || value.isBlank()) {
+            return;
+        }
+        String key = name + ":" + value.trim().toLowerCase();
+        Integer id = featureIds.get(key);
+        if (id == null) {
+            id = featureWeights.size();
+            featureIds.put(key, id);
+            featureWeights.add(weight);
+        }
+        ids.add(id);
+    }
+
+    private double total(int[] vector) {
+        double sum = 0;
+        for (int id : vector) {
+            sum += featureWeights.get(id);
+        }
+        return sum;
+    }
+
+    private static String ageBucket(Integer months) {
+        if (months == null) {
+            return null;
+        }
+        if (months <= 6) return "baby";
+        if (months <= 24) return "young";
+        if (months <= 96) return "adult";
+        return "senior";
+    }
+
+    private static String feeBucket(PetModel pet) {
+        double fee = pet.getAdoptionFee() != null ? pet.getAdoptionFee() : 0;
+        if (pet.isAdoptionFeeFree() || fee == 0) return "free";
+        if (fee <= 5000) return "low";
+        if (fee <= 20000) return "medium";
+        return "high";
+    }
+}
@@ -0,0 +1,263 @@
+package com.example.PostApet.Service;
+
+import com.example.PostApet.Model.PetModel;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index over the text fields of approved pets, so the search box is
+ * answered from memory with BM25 ranking instead of LIKE '%term%' table scans.
+ * Every query token must match (exactly, by prefix or within a small edit
+ * distance) for a pet to be returned.
+ */
+@Service
+public class PetSearchIndex implements PetChangeListener {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double PREFIX_PENALTY = 0.7;
+    private static final double FUZZY_PENALTY = 0.4;
+    private static final int MAX_EXPANSIONS = 64;
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // term -> (petId -> weighted term frequency)
+    private final TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    // petId -> terms of that pet, needed to remove stale postings on update/delete
+    private final Map<Long, Map<String, Integer>> documents = new HashMap<>();
+    private final Map<Long, Integer> documentLengths = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private long totalLength;
+    private volatile boolean ready;
+
+    @Override
+    public void onPetSaved(PetModel pet) {
+        if (pet.getId() == null) {
+            return;
+        }
+        if (!PetChangeListener.isApproved(pet)) {
+            onPetDeleted(pet.getId());
+            return;
+        }
+
+        Map<String, Integer> terms = new HashMap<>();
+        addField(terms, pet.getPetName(), 3);
+        addField(terms, pet.getBreed(), 2);
+        addField(terms, pet.getLocation(), 2);
+        addField(terms, pet.getColorMarkings(), 1);
+        addField(terms, pet.getBehavior(), 1);
+        addField(terms, pet.getSpecialNeeds(), 1);
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(pet.getId());
+            int length = 0;
+            for (Map.Entry<String, Integer> term : terms.entrySet()) {
+                postings.computeIfAbsent(term.getKey(), k -> new HashMap<>()).put(pet.getId(), term.getValue());
+                length += term.getValue();
+            }
+            documents.put(pet.getId(), terms);
+            documentLengths.put(pet.getId(), length);
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onPetDeleted(long petId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(petId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onCatalogLoaded() {
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Returns the ids of every matching approved pet, best match first.
+     */
+    public List<Long> search(String text) {
+        return search(text, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the ids of the best matching approved pets, best match first, at most limit of them.
+     */
+    public List<Long> search(String text, int limit) {
+        List<String> queryTerms = tokenize(text);
+        if (queryTerms.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            int docCount = documents.size();
+            if (docCount == 0) {
+                return Collections.emptyList();
+            }
+            double avgLength = (double) totalLength / docCount;
+
+            Map<Long, Double> scores = null;
+            for (int i = 0; i < queryTerms.size(); i++) {
+                boolean last = i == queryTerms.size() - 1;
+                Map<Long, Double> termScores = scoreTerm(queryTerms.get(i), last, docCount, avgLength);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    // AND semantics: keep only pets matching every query term
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((id, score) -> score + termScores.get(id));
+                }
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(limit)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Double> scoreTerm(String term, boolean allowPrefix, int docCount, double avgLength) {
+        Map<Long, Double> best = new HashMap<>();
+        accumulate(best, term, postings.get(term), 1.0, docCount, avgLength);
+
+        // Prefix expansion only for the last token, the one still being typed
+        if (allowPrefix) {
+            NavigableMap<String, Map<Long, Integer>> range = postings.subMap(term, false, term + Character.MAX_VALUE, false);
+            int expanded = 0;
+            for (Map.Entry<String, Map<Long, Integer>> entry : range.entrySet()) {
+                if (expanded++ >= MAX_EXPANSIONS) {
+                    break;
+                }
+                accumulate(best, entry.getKey(), entry.getValue(), PREFIX_PENALTY, docCount, avgLength);
+            }
+        }
+
+        int maxEdits = term.length() >= 8 ? 2 : term.length() >= 4 ? 1 : 0;
+        if (maxEdits > 0) {
+            // Candidates share the first character, which keeps the scan to one slice of the vocabulary
+            String first = term.substring(0, 1);
+            NavigableMap<String, Map<Long, Integer>> range = postings.subMap(first, true, first + Character.MAX_VALUE, false);
+            int expanded = 0;
+            for (Map.Entry<String, Map<Long, Integer>> entry : range.entrySet()) {
+                String candidate = entry.getKey();
+                if (candidate.equals(term) || Math.abs(candidate.length() - term.length()) > maxEdits) {
+                    continue;
+                }
+                if (withinEditDistance(term, candidate, maxEdits)) {
+                    accumulate(best, candidate, entry.getValue(), FUZZY_PENALTY, docCount, avgLength);
+                    if (++expanded >= MAX_EXPANSIONS) {
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private void accumulate(Map<Long, Double> best, String term, Map<Long, Integer> posting,
+                            double boost, int docCount, double avgLength) {
+        if (posting == null || posting.isEmpty()) {
+            return;
+        }
+        double idf = Math.log(1 + (docCount - posting.size() + 0.5) / (posting.size() + 0.5));
+        for (Map.Entry<Long, Integer> entry : posting.entrySet()) {
+            int length = documentLengths.get(entry.getKey());
+            double tf = entry.getValue();
+            double score = boost * idf * (tf * (K1 + 1)) / (tf + K1 * (1 - B + B * length / avgLength));
+            best.merge(entry.getKey(), score, Math::max);
+        }
+    }
+
+    private void removeLocked(long petId) {
+        Map<String, Integer> terms = documents.remove(petId);
+        if (terms == null) {
+            return;
+        }
+        totalLength -= documentLengths.remove(petId);
+        for (Map.Entry<String, Integer> term : terms.entrySet()) {
+            Map<Long, Integer> posting = postings.get(term.getKey());
+            if (posting != null) {
+                posting.remove(petId);
+                if (posting.isEmpty()) {
+                    postings.remove(term.getKey());
+                }
+            }
+        }
+    }
+
+    private static void addField(Map<String, Integer> terms, String value, int weight) {
+        for (String token : tokenize(value)) {
+            terms.merge(token, weight, Integer::sum);
+        }
+    }
+
+    /**
+     * Lower-cases, strips accents and splits on anything that is not a letter or digit.
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(folded.toLowerCase())) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // Banded Levenshtein with early exit once every cell in a row exceeds maxEdits
+    private static boolean withinEditDistance(String a, String b, int maxEdits) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxEdits) {
+                return false;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()] <= maxEdits;
+    }
+}
@@ -6,29 +6,161 @@ import com.example.PostApet.Repository.PetRepository;
 import com.example.PostApet.Repository.UserRepository;
 import com.example.PostApet.Service.EmailService;
 import com.example.PostApet.dto.PetDto;
+import com.example.PostApet.dto.PetFields;
+import com.example.PostApet.dto.PetPageDto;
+import com.example.PostApet.dto.PetRangeFilter;
 import com.example.PostApet.dto.QuizRequest;
+import com.example.PostApet.util.CursorUtil;
+import com.example.PostApet.util.Gazetteer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public abstract class PetService {
 
+    public static final int MAX_PAGE_SIZE = 200;
+    public static final int BULK_CHUNK_SIZE = 500;
+    public static final int EXPORT_CLEAR_INTERVAL = 500;
+    public static final int MAX_QUOTE_BATCH = 10_000;
+    // Search hits bound per IN list; a broad term is queried one slice at a time
+    public static final int SEARCH_ID_CHUNK = 1000;
+    // PetAttributeIndex facet -> PetModel attribute it is read from
+    private static final Map<String, String> FACET_COLUMNS = Map.of(
+            PetAttributeIndex.SPECIES, "specie",
+            PetAttributeIndex.BREED, "breed",
+            PetAttributeIndex.GENDER, "gender",
+            PetAttributeIndex.SIZE, "size",
+            PetAttributeIndex.LOCATION, "location");
+    private static final int QUOTE_CHUNK_SIZE = 1000;
+
     @Autowired
     protected PetRepository petRepository;
 
     @Autowired
     protected UserRepository userRepository;
 
+    @PersistenceContext
+    protected EntityManager entityManager;
+
     @Autowired
     protected EmailService emailService;
 
+    @Autowired
+    protected PetSearchIndex searchIndex;
+
+    @Autowired
+    protected PetAttributeIndex attributeIndex;
+
+    @Autowired
+    protected PetRecommendationIndex recommendationIndex;
+
+    @Autowired
+    protected RecentApprovedFeed recentFeed;
+
+    @Autowired
+    protected PetGeoIndex geoIndex;
+
+    @Autowired
+    protected PricingEngine pricingEngine;
+
+    @Autowired
+    protected ObjectMapper objectMapper;
+
+    @Autowired
+    protected FileStorageService fileStorageService;
+
+    @Autowired
+    protected TransactionTemplate transactionTemplate;
+
+    @Autowired
+    protected List<PetChangeListener> changeListeners;
+
+    @Autowired
+    protected CatalogVersion catalogVersion;
+
+    // Replays the approved catalog into the in-memory indexes, one keyset page at a time
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadChangeListeners() {
+        Long afterId = 0L;
+        List<PetModel> page;
+        do {
+            page = petRepository.findByRegStatusAndIdGreaterThanOrderByIdAsc(
+                    "Approved", afterId, PageRequest.of(0, MAX_PAGE_SIZE));
+            for (PetModel pet : page) {
+                notifySaved(pet);
+                afterId = pet.getId();
+            }
+        } while (page.size() == MAX_PAGE_SIZE);
+        changeListeners.forEach(PetChangeListener::onCatalogLoaded);
+        // Answers given while the indexes loaded came from the database fallbacks; now
+        // that every index is ready, a new generation keeps their ETags from matching
+        catalogVersion.bump();
+    }
+
+    // The catalog version moves last, once every view serves the write
+    protected void notifySaved(PetModel pet) {
+        changeListeners.forEach(listener -> listener.onPetSaved(pet));
+        catalogVersion.onPetSaved(pet);
+    }
+
+    protected void notifyDeleted(long id) {
+        changeListeners.forEach(listener -> listener.onPetDeleted(id));
+        catalogVersion.onPetDeleted(id);
+    }
+
     public PetModel savePet(PetModel petModel) {
-        return petRepository.save(petModel);
+        PetModel saved = petRepository.save(petModel);
+        notifySaved(saved);
+        return saved;
+    }
+
+    /**
+     * Inserts a batch of pets (one transaction, JDBC-batched) and then tells the
+     * in-memory views about them.
+     */
+    public List<PetModel> savePets(List<PetModel> pets) {
+        List<PetModel> saved = petRepository.saveAll(pets);
+        saved.forEach(this::notifySaved);
+        return saved;
     }
 
 
@@ -45,75 +177,216 @@ public abstract class PetService {
 
 
     public PetDto getPetById(Long id) {
-        return petRepository.findById(id)
-                .map(pet -> {
-                    PetDto dto = PetDto.fromEntity(pet);
-                    // Include owner information
-                    if (pet.getUser() != null) {
-                        dto.setOwnerName(pet.getUser().getName());
-                        dto.setOwnerProfileImage(pet.getUser().getProfileImage());
-                        dto.setOwnerId(pet.getUser().getId());
-                    }
-                    return dto;
-                })
+        return petRepository.findWithUserById(id)
+                .map(this::toDetailDto)
                 .orElse(null);
     }
 
+    public PetDto toDetailDto(PetModel pet) {
+        PetDto dto = PetDto.fromEntity(pet);
+        // Include owner information
+        if (pet.getUser() != null) {
+            dto.setOwnerName(pet.getUser().getName());
+            dto.setOwnerProfileImage(pet.getUser().getProfileImage());
+            dto.setOwnerId(pet.getUser().getId());
+        }
+        return dto;
+    }
+
     public PetModel updatePetStatus(long id, String status) {
-        PetModel pet = petRepository.findById(id)
+        PetModel pet = petRepository.findWithUserById(id)
                 .orElseThrow(() -> new RuntimeException("Pet not found"));
         pet.setRegStatus(status);
         PetModel saved = petRepository.save(pet);
+        notifySaved(saved);
+
+        notifyOwner(pet, status);
+        return saved;
+    }
+
+    /**
+     * Moderates many posts at once: one SELECT and one UPDATE per chunk of ids,
+     * each chunk its own transaction. Pets already in the requested status are
+     * reported UNCHANGED and get no second email, so a retried request is harmless.
+     * <p>
+     * The SELECT locks the chunk's rows and the UPDATE skips rows already in the
+     * status, so the pets notified and emailed are exactly the ones that changed,
+     * and only once their chunk has committed.
+     */
+    public Map<Long, String> updatePetStatuses(List<Long> ids, String status) {
+        Map<Long, String> results = new LinkedHashMap<>();
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+
+        for (int from = 0; from < distinctIds.size(); from += BULK_CHUNK_SIZE) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + BULK_CHUNK_SIZE, distinctIds.size()));
+            Set<Long> found = new HashSet<>();
+            List<PetModel> changed = transactionTemplate.execute(tx -> {
+                List<PetModel> toChange = new ArrayList<>();
+                for (PetModel pet : petRepository.lockAllById(chunk)) {
+                    found.add(pet.getId());
+                    if (!status.equals(pet.getRegStatus())) {
+                        toChange.add(pet);
+                    }
+                }
+                if (!toChange.isEmpty()) {
+                    petRepository.updateRegStatus(toChange.stream().map(PetModel::getId).toList(), status);
+                }
+                return toChange;
+            });
+            Set<Long> changedIds = changed.stream().map(PetModel::getId).collect(Collectors.toSet());
+
+            for (Long id : chunk) {
+                results.put(id, !found.contains(id) ? "NOT_FOUND"
+                        : changedIds.contains(id) ? "UPDATED" : "UNCHANGED");
+            }
+            for (PetModel pet : changed) {
+                // Mirror the UPDATE on the detached copy so the in-memory views see the new row
+                pet.setRegStatus(status);
+                pet.setVersion(pet.getVersion() + 1);
+                notifySaved(pet);
+                notifyOwner(pet, status);
+            }
+        }
+        return results;
+    }
 
+    private void notifyOwner(PetModel pet, String status) {
         if (pet.getUser() != null && ("Approved".equalsIgnoreCase(status) || "Rejected".equalsIgnoreCase(status))) {
-            emailService.sendEmail(pet.getUser().getEmail(),
+            emailService.sendEmailAsync(pet.getUser().getEmail(),
                     "Adoption Post " + status,
                     "Your adoption post '" + pet.getPetName() + "' has been " + status.toLowerCase() + ".");
         }
-
-        return saved;
     }
 
     public PetModel updatePet(int id, PetModel petModel) {
         petModel.setId(id);
-        return petRepository.save(petModel);
+        // The request body carries no version; keep the stored one so the merge is not seen as stale.
+        // Nor can it carry an upload, so the stored photo (and its one reference) stays as well.
+        petRepository.findById((long) id).ifPresent(existing -> {
+            petModel.setVersion(existing.getVersion());
+            petModel.setPhoto(existing.getPhoto());
+            petModel.setPhotoPlaceholder(existing.getPhotoPlaceholder());
+        });
+        PetModel saved = petRepository.save(petModel);
+        notifySaved(saved);
+        return saved;
     }
 
     public abstract PetModel updatePet(long id, PetModel petModel);
 
     public String deletePet(long id) {
+        String photo = petRepository.findById(id).map(PetModel::getPhoto).orElse(null);
         petRepository.deleteById(id);
+        notifyDeleted(id);
+        fileStorageService.release(photo);
         return "Pet deleted successfully";
     }
 
     public PetModel calculateCosts(PetModel petModel) {
-        petModel.calculateTotalCost();
-        petModel.calculateNetCost();
-        return petModel;
+        return pricingEngine.price(petModel);
+    }
+
+    /**
+     * Quotes for the given pets in one pass; unknown ids are left out.
+     */
+    @Transactional(readOnly = true)
+    public PricingEngine.Batch quotePets(List<Long> ids) {
+        PricingEngine.Batch batch = pricingEngine.newBatch(ids.size());
+        for (int from = 0; from < ids.size(); from += QUOTE_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + QUOTE_CHUNK_SIZE, ids.size()));
+            for (Object[] row : petRepository.findPricingInputs(chunk)) {
+                batch.add((Long) row[0], (Integer) row[1], (String) row[2], (Double) row[3], (Boolean) row[4]);
+            }
+        }
+        pricingEngine.price(batch);
+        return batch;
     }
 
     public List<PetDto> getPetsByUserEmail(String email) {
-        User user = userRepository.findFirstByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return petRepository.findByUser(user).stream()
-                .map(PetDto::fromEntity)
-                .collect(Collectors.toList());
+        return getPetsByUserEmail(email, null);
+    }
+
+    @Transactional(readOnly = true)
+    public List<PetDto> getPetsByUserEmail(String email, Set<String> fields) {
+        List<PetDto> pets = fields == null
+                ? petRepository.findWithUserByUserEmail(email).stream()
+                        .map(PetDto::fromEntity)
+                        .collect(Collectors.toList())
+                : findProjected((root, query, cb) -> cb.equal(root.get("user").get("email"), email),
+                        fields, false, null, 0);
+        if (pets.isEmpty() && userRepository.findFirstByEmail(email).isEmpty()) {
+            throw new RuntimeException("User not found");
+        }
+        return pets;
     }
 
     public PetModel updatePetAvailability(long id, Boolean available) {  // Changed from boolean to Boolean
         PetModel pet = petRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Pet not found"));
         pet.setAvailable(available);
-        return petRepository.save(pet);
+        PetModel saved = petRepository.save(pet);
+        notifySaved(saved);
+        return saved;
+    }
+
+    // From the image pipeline; ignored when the photo was replaced in the meantime. The
+    // owner is fetched with the pet, as RecentApprovedFeed renders it after the session is
+    // gone, and the listeners hear of the change once it has committed.
+    public void updatePhotoPlaceholder(long id, String photo, String placeholder) {
+        PetModel saved = transactionTemplate.execute(tx -> petRepository.findWithUserById(id)
+                .filter(pet -> photo.equals(pet.getPhoto()))
+                .map(pet -> {
+                    pet.setPhotoPlaceholder(placeholder);
+                    return petRepository.save(pet);
+                })
+                .orElse(null));
+        if (saved != null) {
+            notifySaved(saved);
+        }
     }
 
     public List<PetDto> getRecentApprovedPets(int limit) {
-        return petRepository.findTop8ByRegStatusOrderByIdDesc("Approved")
+        return petRepository.findByRegStatusAndIsAvailableOrderByIdDesc("Approved", true, PageRequest.of(0, limit))
                 .stream()
                 .map(PetDto::fromEntity)
                 .collect(Collectors.toList());
     }
 
+    // Home page feed: served from the in-memory feed, the database is only read
+    // when the feed cannot cover the request (still warming up, or too many
+    // recent pets were unapproved to fill the page)
+    public byte[] getRecentApprovedPetsJson(int limit) {
+        return getRecentApprovedPetsJson(limit, null);
+    }
+
+    // The full and summary views come pre-serialized from the feed; any other field
+    // selection is read from the database with only those columns
+    @Transactional(readOnly = true)
+    public byte[] getRecentApprovedPetsJson(int limit, Set<String> fields) {
+        int size = Math.max(1, Math.min(limit, RecentApprovedFeed.CAPACITY));
+        if (fields != null && !fields.equals(PetFields.SUMMARY)) {
+            List<PetDto> pets = findProjected(
+                    (root, query, cb) -> cb.and(
+                            cb.equal(root.get("regStatus"), "Approved"),
+                            cb.isTrue(root.get("isAvailable"))),
+                    fields, false, Sort.by(Sort.Direction.DESC, "id"), size);
+            try {
+                return objectMapper.writer(PetFields.filterProvider(fields)).writeValueAsBytes(pets);
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Could not serialize recent pets", e);
+            }
+        }
+
+        RecentApprovedFeed.Snapshot snapshot = recentFeed.snapshot();
+        if (!recentFeed.isReady() || snapshot.stale() || (snapshot.entries().size() < size && snapshot.truncated())) {
+            List<PetModel> newest = petRepository.findByRegStatusAndIsAvailableOrderByIdDesc(
+                    "Approved", true, PageRequest.of(0, RecentApprovedFeed.CAPACITY));
+            recentFeed.reseed(snapshot, newest);
+            snapshot = recentFeed.snapshot();
+        }
+        return RecentApprovedFeed.render(snapshot, size, fields != null);
+    }
+
     public List<PetDto> getRecentPets(int limit) {
         PageRequest request = PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "id"));
         return petRepository.findAll(request)
@@ -130,9 +403,323 @@ public abstract class PetService {
             String gender,
             String location,
             String search) {
+        return getApprovedPets(specie, breed, gender, location, search, null, null);
+    }
+
+    @Transactional(readOnly = true)
+    public List<PetDto> getApprovedPets(
+            String specie,
+            String breed,
+            String gender,
+            String location,
+            String search,
+            PetRangeFilter range,
+            Set<String> fields) {
+
+        Sort sort = range != null ? range.toSort() : null;
+        List<Long> ranked = rankedSearchHits("Approved", search);
+        // Each slice comes back sorted on its own; the merge below needs the sort keys
+        Set<String> columns = fields;
+        if (fields != null && ranked != null && sort != null) {
+            columns = new LinkedHashSet<>(fields);
+            for (Sort.Order order : sort) {
+                columns.add(order.getProperty());
+            }
+        }
+
+        List<PetDto> pets = new ArrayList<>();
+        for (List<Long> chunk : hitChunks(inIdOrder(ranked))) {
+            Specification<PetModel> spec = approvedSpec(specie, breed, gender, location, search, chunk)
+                    .and(rangeSpec(range));
+            if (fields == null) {
+                petRepository.findAll(spec.and(fetchOwner()), sort != null ? sort : Sort.unsorted()).stream()
+                        .map(PetDto::fromEntity)
+                        .forEach(pets::add);
+            } else {
+                pets.addAll(findProjected(spec, columns, false, sort, 0));
+            }
+        }
+
+        if (ranked != null && sort != null) {
+            pets.sort(comparator(sort));
+        } else if (ranked != null) {
+            // Keep the relevance order of the search index rather than the database order
+            Map<Long, Integer> rank = new HashMap<>();
+            for (int i = 0; i < ranked.size(); i++) {
+                rank.put(ranked.get(i), i);
+            }
+            pets.sort(Comparator.comparing(pet -> rank.getOrDefault(pet.getId(), Integer.MAX_VALUE)));
+        }
+        return pets;
+    }
+
+    // The order MySQL gives a Sort (NULLs first ascending, last descending), to merge per-slice results
+    private static Comparator<PetDto> comparator(Sort sort) {
+        Comparator<PetDto> result = null;
+        for (Sort.Order order : sort) {
+            Comparator<PetDto> next = switch (order.getProperty()) {
+                case "ageMonths" -> Comparator.comparing(PetDto::getAgeMonths, Comparator.nullsFirst(Comparator.naturalOrder()));
+                case "adoptionFee" -> Comparator.comparing(PetDto::getAdoptionFee, Comparator.nullsFirst(Comparator.naturalOrder()));
+                case "id" -> Comparator.comparing(PetDto::getId, Comparator.nullsFirst(Comparator.naturalOrder()));
+                default -> throw new IllegalArgumentException("Unknown sort: " + order.getProperty());
+            };
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            result = result == null ? next : result.thenComparing(next);
+        }
+        return result;
+    }
+
+    public Map<String, Map<String, Integer>> getApprovedFacets(
+            String specie,
+            String breed,
+            String gender,
+            String location,
+            String size,
+            String search) {
+
+        Map<String, String> filters = new HashMap<>();
+        filters.put(PetAttributeIndex.SPECIES, specie);
+        filters.put(PetAttributeIndex.BREED, breed);
+        filters.put(PetAttributeIndex.GENDER, gender);
+        filters.put(PetAttributeIndex.LOCATION, location);
+        filters.put(PetAttributeIndex.SIZE, size);
+
+        boolean searching = search != null && !search.isEmpty();
+        // Indexes still warming up after startup: count in the database instead
+        if (!attributeIndex.isReady() || (searching && !searchIndex.isReady())) {
+            return facetCountsFromDatabase(filters, search);
+        }
+
+        BitSet restrictTo = null;
+        if (searching) {
+            restrictTo = new BitSet();
+            for (Long id : searchIndex.search(search)) {
+                restrictTo.set(id.intValue());
+            }
+        }
+        return attributeIndex.facetCounts(filters, restrictTo);
+    }
 
-        Specification<PetModel> spec = Specification.where((root, query, cb) ->
-                cb.equal(root.get("regStatus"), "Approved"));
+    // One GROUP BY per facet, each under every filter but its own, as facetCounts does
+    private Map<String, Map<String, Integer>> facetCountsFromDatabase(Map<String, String> filters, String search) {
+        Map<String, Map<String, Integer>> result = new LinkedHashMap<>();
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        List<Long> hits = approvedSearchHits(search);
+        for (String facet : PetAttributeIndex.FACETS) {
+            Map<String, String> others = new HashMap<>(filters);
+            others.remove(facet);
+            String size = others.get(PetAttributeIndex.SIZE);
+
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            for (List<Long> chunk : hitChunks(hits)) {
+                Specification<PetModel> spec = catalogSpec("Approved", others.get(PetAttributeIndex.SPECIES),
+                        others.get(PetAttributeIndex.BREED), others.get(PetAttributeIndex.GENDER),
+                        others.get(PetAttributeIndex.LOCATION), search, chunk);
+                if (size != null && !size.isEmpty()) {
+                    spec = spec.and((root, query, builder) -> builder.equal(root.get("size"), size));
+                }
+
+                CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+                Root<PetModel> root = query.from(PetModel.class);
+                Path<String> column = root.get(FACET_COLUMNS.get(facet));
+                query.multiselect(column, cb.count(root))
+                        .where(cb.isNotNull(column), spec.toPredicate(root, query, cb))
+                        .groupBy(column);
+
+                for (Object[] row : entityManager.createQuery(query).getResultList()) {
+                    String value = ((String) row[0]).trim();
+                    if (!value.isEmpty()) {
+                        counts.merge(value, ((Long) row[1]).intValue(), Integer::sum);
+                    }
+                }
+            }
+            result.put(facet, counts);
+        }
+        return result;
+    }
+
+    // Keyset page: WHERE id > afterId ORDER BY id LIMIT n, so the cost of a page
+    // does not depend on how deep into the catalog the client is.
+    @Transactional(readOnly = true)
+    public PetPageDto getApprovedPetsPage(
+            String specie,
+            String breed,
+            String gender,
+            String location,
+            String search,
+            Long afterId,
+            int limit) {
+        return getApprovedPetsPage(specie, breed, gender, location, search, null, afterId, limit);
+    }
+
+    // Pages are always in id order; range filters apply, a sort does not
+    @Transactional(readOnly = true)
+    public PetPageDto getApprovedPetsPage(
+            String specie,
+            String breed,
+            String gender,
+            String location,
+            String search,
+            PetRangeFilter range,
+            Long afterId,
+            int limit) {
+        return getApprovedPetsPage(specie, breed, gender, location, search, approvedSearchHits(search),
+                range, afterId, limit);
+    }
+
+    /**
+     * As above, with the search already run through {@link #approvedSearchHits}, so
+     * a caller walking every page searches once. Only hits past the cursor are
+     * bound, a slice at a time, until the page is full.
+     */
+    @Transactional(readOnly = true)
+    public PetPageDto getApprovedPetsPage(
+            String specie,
+            String breed,
+            String gender,
+            String location,
+            String search,
+            List<Long> hits,
+            PetRangeFilter range,
+            Long afterId,
+            int limit) {
+
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<Long> remaining = hits;
+        if (hits != null && afterId != null) {
+            int position = Collections.binarySearch(hits, afterId);
+            remaining = hits.subList(position >= 0 ? position + 1 : -position - 1, hits.size());
+        }
+
+        // Fetch one extra row to know whether another page exists without a COUNT query
+        List<PetModel> rows = new ArrayList<>();
+        for (List<Long> chunk : hitChunks(remaining)) {
+            Specification<PetModel> spec = approvedSpec(specie, breed, gender, location, search, chunk)
+                    .and(rangeSpec(range))
+                    .and(fetchOwner());
+            if (afterId != null) {
+                spec = spec.and((root, query, cb) -> cb.greaterThan(root.get("id"), afterId));
+            }
+            int wanted = pageSize + 1 - rows.size();
+            rows.addAll(petRepository.findBy(spec, q -> q
+                    .sortBy(Sort.by(Sort.Direction.ASC, "id"))
+                    .limit(wanted)
+                    .all()));
+            if (rows.size() > pageSize) {
+                break;
+            }
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<PetDto> items = rows.stream()
+                .limit(pageSize)
+                .map(PetDto::fromEntity)
+                .collect(Collectors.toList());
+
+        Long lastId = items.isEmpty() ? afterId : items.get(items.size() - 1).getId();
+        String nextCursor = hasMore ? CursorUtil.encode(lastId) : null;
+        return new PetPageDto(items, nextCursor, lastId);
+    }
+
+    // PetDto reads the owner's id and profile image, so load the owner in the same statement
+    protected static Specification<PetModel> fetchOwner() {
+        return (root, query, cb) -> {
+            if (query.getResultType() != Long.class && query.getResultType() != long.class) {
+                root.fetch("user", JoinType.LEFT);
+            }
+            return null;
+        };
+    }
+
+    protected Specification<PetModel> approvedSpec(
+            String specie,
+            String breed,
+            String gender,
+            String location,
+            String search,
+            List<Long> hitChunk) {
+        return catalogSpec("Approved", specie, breed, gender, location, search, hitChunk);
+    }
+
+    /**
+     * Ids of the approved pets matching search, in id order, or null when the search
+     * index is not used (no search, or still warming up after startup) and the
+     * search runs in SQL instead.
+     */
+    public List<Long> approvedSearchHits(String search) {
+        return inIdOrder(rankedSearchHits("Approved", search));
+    }
+
+    // The search index holds approved pets only
+    protected List<Long> rankedSearchHits(String status, String search) {
+        if (search != null && !search.isEmpty() && "Approved".equals(status) && searchIndex.isReady()) {
+            return searchIndex.search(search);
+        }
+        return null;
+    }
+
+    private static List<Long> inIdOrder(List<Long> hits) {
+        if (hits == null) {
+            return null;
+        }
+        List<Long> sorted = new ArrayList<>(hits);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    // Slices of SEARCH_ID_CHUNK hits, one IN list per query; null hits are one slice
+    // without an id restriction, no hits are no slices (and no query)
+    protected static List<List<Long>> hitChunks(List<Long> hits) {
+        if (hits == null) {
+            return Collections.singletonList(null);
+        }
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < hits.size(); from += SEARCH_ID_CHUNK) {
+            chunks.add(hits.subList(from, Math.min(from + SEARCH_ID_CHUNK, hits.size())));
+        }
+        return chunks;
+    }
+
+    // Closed ranges on the indexed numeric columns; (reg_status, age_months) and
+    // (reg_status, adoption_fee) turn them into index range scans
+    protected static Specification<PetModel> rangeSpec(PetRangeFilter range) {
+        return (root, query, cb) -> {
+            if (range == null) {
+                return null;
+            }
+            List<Predicate> predicates = new ArrayList<>();
+            if (range.getMinAgeMonths() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("ageMonths"), range.getMinAgeMonths()));
+            }
+            if (range.getMaxAgeMonths() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("ageMonths"), range.getMaxAgeMonths()));
+            }
+            if (range.getMinFee() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("adoptionFee"), range.getMinFee()));
+            }
+            if (range.getMaxFee() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("adoptionFee"), range.getMaxFee()));
+            }
+            return predicates.isEmpty() ? null : cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    // The /approved filters for any registration status; a null status matches every pet.
+    // hitChunk is a slice of the search index's hits (see hitChunks); without one the
+    // search runs as LIKE
+    protected Specification<PetModel> catalogSpec(
+            String status,
+            String specie,
+            String breed,
+            String gender,
+            String location,
+            String search,
+            List<Long> hitChunk) {
+
+        Specification<PetModel> spec = Specification.where(status == null ? null : (root, query, cb) ->
+                cb.equal(root.get("regStatus"), status));
 
         if (specie != null && !specie.isEmpty()) {
             spec = spec.and((root, query, cb) ->
@@ -154,7 +741,12 @@ public abstract class PetService {
                     cb.equal(root.get("location"), location));
         }
 
-        if (search != null && !search.isEmpty()) {
+        if (hitChunk != null) {
+            spec = spec.and((root, query, cb) -> hitChunk.isEmpty()
+                    ? cb.disjunction()
+                    : root.get("id").in(hitChunk));
+        } else if (search != null && !search.isEmpty()) {
+            // Index still warming up after startup, or not an approved-only query
             String searchTerm = "%" + search.toLowerCase() + "%";
             spec = spec.and((root, query, cb) ->
                     cb.or(
@@ -164,28 +756,236 @@ public abstract class PetService {
                     ));
         }
 
-        return petRepository.findAll(spec)
-                .stream()
-                .map(PetDto::fromEntity)
-                .collect(Collectors.toList());
+        return spec;
     }
 
-    public List<PetDto> getRecommendedPets(String specie, Long exclude) {
-        List<PetModel> pets = petRepository.findBySpecieAndRegStatus(specie, "Approved");
+    /**
+     * Walks every pet matching the filters with a forward-only cursor and hands each
+     * one to the sink, in id order. The persistence context is cleared every
+     * EXPORT_CLEAR_INTERVAL rows, so memory does not grow with the catalog.
+     */
+    @Transactional(readOnly = true)
+    public long exportPets(
+            String status,
+            String specie,
+            String breed,
+            String gender,
+            String location,
+            String search,
+            PetRangeFilter range,
+            PetSink sink) throws IOException {
+
+        long count = 0;
+        // Slices are in id order, so the export stays in id order across them
+        for (List<Long> chunk : hitChunks(inIdOrder(rankedSearchHits(status, search)))) {
+            Specification<PetModel> spec = catalogSpec(status, specie, breed, gender, location, search, chunk)
+                    .and(rangeSpec(range))
+                    .and(fetchOwner());
+            CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+            CriteriaQuery<PetModel> query = cb.createQuery(PetModel.class);
+            Root<PetModel> root = query.from(PetModel.class);
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+            query.orderBy(cb.asc(root.get("id")));
+
+            try (ScrollableResults<PetModel> rows = entityManager.unwrap(Session.class).createQuery(query)
+                    // MySQL Connector/J streams rows one at a time only with this fetch size
+                    .setFetchSize(Integer.MIN_VALUE)
+                    .setReadOnly(true)
+                    .setCacheMode(CacheMode.IGNORE)
+                    .scroll(ScrollMode.FORWARD_ONLY)) {
+                while (rows.next()) {
+                    sink.accept(PetDto.fromEntity(rows.get()));
+                    if (++count % EXPORT_CLEAR_INTERVAL == 0) {
+                        entityManager.clear();
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    @FunctionalInterface
+    public interface PetSink {
+        void accept(PetDto pet) throws IOException;
+    }
+
+    public List<PetDto> getRecommendedPets(String specie, Long exclude, int limit) {
+        return getRecommendedPets(specie, exclude, limit, null);
+    }
+
+    @Transactional(readOnly = true)
+    public List<PetDto> getRecommendedPets(String specie, Long exclude, int limit, Set<String> fields) {
+        int size = Math.max(1, Math.min(limit, PetRecommendationIndex.K));
+
+        // Neighbours of the pet being viewed, else the newest pets of the species
+        List<Long> ids = exclude != null && recommendationIndex.contains(exclude)
+                ? recommendationIndex.similarTo(exclude, size)
+                : recommendationIndex.newest(specie, exclude, size);
+        return findAllInOrder(ids, fields, false);
+    }
 
-        if (exclude != null) {
-            pets = pets.stream()
-                    .filter(p -> !p.getId().equals(exclude))
-                    .collect(Collectors.toList());
+    /**
+     * Approved, available pets within radiusKm of a point, or inside a bounding box
+     * when one is given, nearest first and each with its distanceKm.
+     */
+    @Transactional(readOnly = true)
+    public List<PetDto> getApprovedPetsNear(
+            double latitude,
+            double longitude,
+            double radiusKm,
+            double[] box,
+            String specie,
+            String breed,
+            String gender,
+            String size,
+            int limit) {
+
+        int max = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<PetGeoIndex.Hit> hits;
+        if (geoIndex.isReady() && attributeIndex.isReady()) {
+            BitSet allowed = null;
+            if (specie != null || breed != null || gender != null || size != null) {
+                Map<String, String> filters = new HashMap<>();
+                filters.put(PetAttributeIndex.SPECIES, specie);
+                filters.put(PetAttributeIndex.BREED, breed);
+                filters.put(PetAttributeIndex.GENDER, gender);
+                filters.put(PetAttributeIndex.SIZE, size);
+                allowed = attributeIndex.matchAll(filters);
+            }
+            hits = box != null
+                    ? geoIndex.within(box[0], box[1], box[2], box[3], latitude, longitude, allowed, max)
+                    : geoIndex.near(latitude, longitude, radiusKm, allowed, max);
+        } else {
+            hits = findNearInDatabase(latitude, longitude, radiusKm, box, specie, breed, gender, size, max);
+        }
+
+        Map<Long, Double> distances = new HashMap<>();
+        hits.forEach(hit -> distances.put(hit.id(), hit.distanceKm()));
+        List<PetDto> pets = findAllInOrder(hits.stream().map(PetGeoIndex.Hit::id).toList());
+        pets.forEach(pet -> pet.setDistanceKm(Math.round(distances.get(pet.getId()) * 10) / 10.0));
+        return pets;
+    }
+
+    // Index still warming up after startup: bounding box in SQL, distances in Java
+    private List<PetGeoIndex.Hit> findNearInDatabase(double latitude, double longitude, double radiusKm, double[] box,
+                                                     String specie, String breed, String gender, String size, int max) {
+        double[] bounds = box != null ? box : new double[]{
+                latitude - radiusKm / 111.32, latitude + radiusKm / 111.32,
+                longitude - radiusKm / (111.32 * Math.max(Math.cos(Math.toRadians(latitude)), 0.01)),
+                longitude + radiusKm / (111.32 * Math.max(Math.cos(Math.toRadians(latitude)), 0.01))};
+        double limitKm = box != null ? Double.POSITIVE_INFINITY : radiusKm;
+        Specification<PetModel> spec = approvedSpec(specie, breed, gender, null, null, null)
+                .and((root, query, cb) -> cb.and(
+                        cb.isTrue(root.get("isAvailable")),
+                        cb.between(root.get("latitude"), bounds[0], bounds[1]),
+                        cb.between(root.get("longitude"), bounds[2], bounds[3])));
+        if (size != null) {
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("size"), size));
         }
+        return petRepository.findAll(spec).stream()
+                .map(pet -> new PetGeoIndex.Hit(pet.getId(),
+                        Gazetteer.distanceKm(latitude, longitude, pet.getLatitude(), pet.getLongitude())))
+                .filter(hit -> hit.distanceKm() <= limitKm)
+                .sorted(Comparator.comparingDouble(PetGeoIndex.Hit::distanceKm)
+                        .thenComparing(PetGeoIndex.Hit::id, Comparator.reverseOrder()))
+                .limit(max)
+                .toList();
+    }
 
-        return pets.stream()
-                .limit(4)
+    public List<PetDto> findMatchingPets(QuizRequest quizRequest) {
+        return findMatchingPets(quizRequest, null);
+    }
+
+    public abstract List<PetDto> findMatchingPets(QuizRequest quizRequest, Set<String> fields);
+
+    // Loads the given pets in one query and returns them in the order of the ids
+    protected List<PetDto> findAllInOrder(List<Long> ids) {
+        Map<Long, PetModel> byId = new HashMap<>();
+        for (PetModel pet : petRepository.findAllById(ids)) {
+            byId.put(pet.getId(), pet);
+        }
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
                 .map(PetDto::fromEntity)
                 .collect(Collectors.toList());
     }
 
-    public abstract List<PetDto> findMatchingPets(QuizRequest quizRequest);
+    // Same, reading only the selected columns; a null selection loads full pets
+    protected List<PetDto> findAllInOrder(List<Long> ids, Set<String> fields, boolean ownerDetail) {
+        if (fields == null) {
+            return findAllInOrder(ids);
+        }
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, PetDto> byId = new HashMap<>();
+        for (PetDto pet : findProjected((root, query, cb) -> root.get("id").in(ids), fields, ownerDetail, null, 0)) {
+            byId.put(pet.getId(), pet);
+        }
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Selects only the columns behind the given PetDto properties (joining the owner
+     * only when an owner property is asked for) and fills a PetDto per row; the
+     * other properties stay unset and are filtered out of the response.
+     * ownerDetail reads ownerName from the owner's account, as toDetailDto does.
+     * The spec must not fetch associations.
+     */
+    protected List<PetDto> findProjected(Specification<PetModel> spec, Set<String> fields, boolean ownerDetail,
+                                         Sort sort, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<PetModel> root = query.from(PetModel.class);
+        Join<PetModel, User> owner = null;
+
+        List<Selection<?>> selections = new ArrayList<>();
+        for (String name : fields) {
+            String path = ownerDetail && name.equals("ownerName") ? "user.name" : PetFields.field(name).path();
+            if (path.startsWith("user.")) {
+                if (owner == null) {
+                    owner = root.join("user", JoinType.LEFT);
+                }
+                selections.add(owner.get(path.substring("user.".length())).alias(name));
+            } else {
+                selections.add(root.get(path).alias(name));
+            }
+        }
+        query.multiselect(selections);
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (sort != null && sort.isSorted()) {
+            query.orderBy(sort.stream()
+                    .map(order -> order.isAscending()
+                            ? cb.asc(root.get(order.getProperty()))
+                            : cb.desc(root.get(order.getProperty())))
+                    .toList());
+        }
+
+        TypedQuery<Tuple> typed = entityManager.createQuery(query);
+        if (limit > 0) {
+            typed.setMaxResults(limit);
+        }
+        List<PetDto> pets = new ArrayList<>();
+        for (Tuple row : typed.getResultList()) {
+            PetDto dto = new PetDto();
+            for (String name : fields) {
+                PetFields.field(name).setter().accept(dto, row.get(name));
+            }
+            pets.add(dto);
+        }
+        return pets;
+    }
 
 
 }
\ No newline at end of file
@@ -4,12 +4,18 @@ import com.example.PostApet.Model.PetModel;
 import com.example.PostApet.dto.PetDto;
 import com.example.PostApet.dto.QuizRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class PetServiceImpl extends PetService {
 
+    private static final int DEFAULT_QUIZ_LIMIT = 50;
+
     @Override
     public PetModel savePet(PetModel petModel) {
         return super.savePet(petModel);
@@ -47,7 +53,7 @@ public class PetServiceImpl extends PetService {
             existingPet.setContactPhoneNumber(petModel.getContactPhoneNumber());
             existingPet.setOwnerName(petModel.getOwnerName());
             existingPet.setNic(petModel.getNic());
-            existingPet.setPhoto(petModel.getPhoto());
+            // photo stays: the JSON body cannot hand over an upload reference
             existingPet.setRegStatus(petModel.getRegStatus());
             existingPet.setPhysicalStatus(petModel.getPhysicalStatus());
             existingPet.setDocName(petModel.getDocName());
@@ -55,55 +61,76 @@ public class PetServiceImpl extends PetService {
             existingPet.setDiscount(petModel.getDiscount());
             existingPet.setNetCost(petModel.getNetCost());
             existingPet.setTotalCost(petModel.getTotalCost());
-            return petRepository.save(existingPet);
+            PetModel saved = petRepository.save(existingPet);
+            notifySaved(saved);
+            return saved;
         }
         return null;
     }
 
     @Override
     public String deletePet(long id) {
-        if (petRepository.existsById(id)) {
+        PetModel pet = petRepository.findById(id).orElse(null);
+        if (pet != null) {
             petRepository.deleteById(id);
+            notifyDeleted(id);
+            fileStorageService.release(pet.getPhoto());
             return "Pet deleted successfully!";
         }
         return "Pet not found!";
     }
 
+    //  NEW: Quiz Matching Implementation
     @Override
-    public PetModel calculateCosts(PetModel petModel) {
-        double totalCost = 10000; // Default cost
-        try {
-            int ageInMonths = Integer.parseInt(petModel.getAge());
-            if (ageInMonths <= 1) totalCost = 20000;
-            else if (ageInMonths <= 6) totalCost = 60000;
-            else if (ageInMonths <= 12) totalCost = 100000;
-        } catch (NumberFormatException e) {
-            // Handle invalid age format
+    @Transactional(readOnly = true)
+    public List<PetDto> findMatchingPets(QuizRequest quizRequest, Set<String> fields) {
+        int limit = quizRequest.getLimit() != null
+                ? Math.max(1, Math.min(quizRequest.getLimit(), MAX_PAGE_SIZE))
+                : DEFAULT_QUIZ_LIMIT;
+
+        if (!attributeIndex.isReady()) {
+            return petRepository.findAll().stream()
+                    .filter(PetChangeListener::isApproved)
+                    .filter(pet -> !Boolean.FALSE.equals(pet.getAvailable()))
+                    .filter(pet -> matchesPetType(pet, quizRequest))
+                    .filter(pet -> matchesSize(pet, quizRequest))
+                    .filter(pet -> matchesGender(pet, quizRequest))
+                    .filter(pet -> matchesAdoptionFee(pet, quizRequest))
+                    .limit(limit)
+                    .map(PetDto::fromEntity)
+                    .toList();
         }
 
-        double discountValue = petModel.getDiscount() != null ? petModel.getDiscount() : 0;
-        double netCost = totalCost - (totalCost * discountValue / 100);
-
-        petModel.setTotalCost(totalCost);
-        petModel.setNetCost(netCost);
+        Map<String, String> required = new HashMap<>();
+        required.put(PetAttributeIndex.REG_STATUS, "Approved");
+        required.put(PetAttributeIndex.AVAILABLE, "true");
+        required.put(PetAttributeIndex.SPECIES, quizRequest.getPetType());
 
-        return petModel;
-    }
+        Map<String, String> preferences = new HashMap<>();
+        preferences.put(PetAttributeIndex.SIZE, quizRequest.getPreferredSize());
+        String gender = quizRequest.getPreferredGender();
+        if (gender != null && !gender.isEmpty() && !gender.equalsIgnoreCase("either")) {
+            preferences.put(PetAttributeIndex.GENDER, gender);
+        }
+        if ("free".equals(quizRequest.getAdoptionFeePreference())) {
+            preferences.put(PetAttributeIndex.FEE_FREE, "true");
+        }
 
-    //  NEW: Quiz Matching Implementation
-    @Override
-    public List<PetDto> findMatchingPets(QuizRequest quizRequest) {
-        return petRepository.findAll().stream()
-                .filter(pet -> matchesPetType(pet, quizRequest))
-                .filter(pet -> matchesSize(pet, quizRequest))
-                .filter(pet -> matchesGender(pet, quizRequest))
-                .filter(pet -> matchesAdoptionFee(pet, quizRequest))
-                .map(PetDto::fromEntity)
-                .toList();
+        List<Long> ids;
+        Map<String, Double> weights = quizRequest.getWeights();
+        if (weights == null || weights.isEmpty()) {
+            // No weights: every preference is a hard filter, as before
+            Map<String, String> all = new HashMap<>(required);
+            all.putAll(preferences);
+            ids = attributeIndex.topMatches(attributeIndex.matchAll(all), Map.of(), Map.of(), limit);
+        } else {
+            ids = attributeIndex.topMatches(attributeIndex.matchAll(required), preferences, weights, limit);
+        }
+        return findAllInOrder(ids, fields, false);
     }
 
     private boolean matchesPetType(PetModel pet, QuizRequest request) {
-        return request.getPetType() == null || pet.getSpecie().equalsIgnoreCase(request.getPetType());
+        return request.getPetType() == null || request.getPetType().equalsIgnoreCase(pet.getSpecie());
     }
 
     private boolean matchesSize(PetModel pet, QuizRequest request) {
@@ -117,7 +144,7 @@ public class PetServiceImpl extends PetService {
             return true; // Show all pets if no preference or "either" is selected
         }
         // Otherwise, filter by exact gender match
-        return pet.getGender().equalsIgnoreCase(request.getPreferredGender());
+        return request.getPreferredGender().equalsIgnoreCase(pet.getGender());
     }
 
     private boolean matchesAdoptionFee(PetModel pet, QuizRequest request) {
@@ -126,7 +153,7 @@ public class PetServiceImpl extends PetService {
         }
 
         if (request.getAdoptionFeePreference().equals("free")) {
-            return pet.isAdoptionFeeFree() || pet.getAdoptionFee() == 0;
+            return PetChangeListener.isFeeFree(pet); // a null fee is free, as in the index
         } else {
             return true; // "any" → show all pets
         }
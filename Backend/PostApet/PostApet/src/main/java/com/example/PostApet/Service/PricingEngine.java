@@ -0,0 +1,163 @@
+package com.example.PostApet.Service;
+
+import com.example.PostApet.Model.PetModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Adoption pricing from the pricing.* properties, the one place costs are worked out.
+ * <ul>
+ * <li>Base cost by age: the first pricing.age-tiers entry whose upper bound (months)
+ * covers the pet, else pricing.base-cost, which also applies when the age is unknown.</li>
+ * <li>Multiplied by the pricing.species-factors entry for the species (default 1).</li>
+ * <li>Less the listing's discount percentage, capped at pricing.max-discount-percent.</li>
+ * <li>Fee-free listings have a net cost of 0.</li>
+ * </ul>
+ * The tiers are compiled into a cost-per-month table at startup, so a quote is an
+ * array read and a few multiplications. {@link Batch} prices many pets over
+ * primitive columns without allocating per pet.
+ */
+@Service
+public class PricingEngine {
+
+    // index = age in months, up to the last tier's bound
+    private final double[] costByMonth;
+    private final double baseCost;
+    private final Map<String, Double> speciesFactors = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final double maxDiscountPercent;
+
+    public PricingEngine(@Value("${pricing.age-tiers:}") List<String> ageTiers,
+                         @Value("${pricing.base-cost:10000}") double baseCost,
+                         @Value("${pricing.species-factors:}") List<String> speciesFactors,
+                         @Value("${pricing.max-discount-percent:100}") double maxDiscountPercent) {
+        this.baseCost = baseCost;
+        this.maxDiscountPercent = maxDiscountPercent;
+
+        TreeMap<Integer, Double> tiers = new TreeMap<>();
+        for (String tier : ageTiers) {
+            String[] parts = pair(tier, "pricing.age-tiers");
+            tiers.put(Integer.parseInt(parts[0]), Double.parseDouble(parts[1]));
+        }
+        costByMonth = new double[tiers.isEmpty() ? 0 : tiers.lastKey() + 1];
+        int month = 0;
+        for (Map.Entry<Integer, Double> tier : tiers.entrySet()) {
+            Arrays.fill(costByMonth, month, tier.getKey() + 1, tier.getValue());
+            month = tier.getKey() + 1;
+        }
+
+        for (String factor : speciesFactors) {
+            String[] parts = pair(factor, "pricing.species-factors");
+            this.speciesFactors.put(parts[0], Double.parseDouble(parts[1]));
+        }
+    }
+
+    /**
+     * Sets totalCost and netCost on the pet from its age, species, discount and fee-free flag.
+     */
+    public PetModel price(PetModel pet) {
+        double total = totalCost(pet.getAgeMonths() != null ? pet.getAgeMonths() : -1, speciesFactor(pet.getSpecie()));
+        pet.setTotalCost(total);
+        pet.setNetCost(netCost(total, pet.getDiscount() != null ? pet.getDiscount() : 0, pet.isAdoptionFeeFree()));
+        return pet;
+    }
+
+    public Batch newBatch(int capacity) {
+        return new Batch(capacity);
+    }
+
+    /**
+     * Prices every pet added to the batch.
+     */
+    public void price(Batch batch) {
+        for (int i = 0; i < batch.size; i++) {
+            double total = totalCost(batch.ageMonths[i], batch.speciesFactor[i]);
+            batch.totalCost[i] = total;
+            batch.netCost[i] = netCost(total, batch.discount[i], batch.feeFree[i]);
+        }
+    }
+
+    private double totalCost(int ageMonths, double speciesFactor) {
+        double base = ageMonths >= 0 && ageMonths < costByMonth.length ? costByMonth[ageMonths] : baseCost;
+        return base * speciesFactor;
+    }
+
+    private double netCost(double total, double discountPercent, boolean feeFree) {
+        if (feeFree) {
+            return 0;
+        }
+        double discount = Math.max(0, Math.min(discountPercent, maxDiscountPercent));
+        return total - total * discount / 100;
+    }
+
+    private double speciesFactor(String specie) {
+        Double factor = specie != null ? speciesFactors.get(specie) : null;
+        return factor != null ? factor : 1.0;
+    }
+
+    private static String[] pair(String entry, String property) {
+        String[] parts = entry.trim().split(":");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException(property + " entries are name:value, got " + entry);
+        }
+        return new String[]{parts[0].trim(), parts[1].trim()};
+    }
+
+    /**
+     * Columns of pets to price together. add() resolves the species factor once,
+     * so {@link #price(Batch)} only touches primitive arrays.
+     */
+    public class Batch {
+        private final long[] ids;
+        private final int[] ageMonths;
+        private final double[] speciesFactor;
+        private final double[] discount;
+        private final boolean[] feeFree;
+        private final double[] totalCost;
+        private final double[] netCost;
+        private int size;
+
+        private Batch(int capacity) {
+            ids = new long[capacity];
+            ageMonths = new int[capacity];
+            speciesFactor = new double[capacity];
+            discount = new double[capacity];
+            feeFree = new boolean[capacity];
+            totalCost = new double[capacity];
+            netCost = new double[capacity];
+        }
+
+        public void add(long id, Integer ageMonths, String specie, Double discount, boolean feeFree) {
+            ids[size] = id;
+            this.ageMonths[size] = ageMonths != null ? ageMonths : -1;
+            speciesFactor[size] = PricingEngine.this.speciesFactor(specie);
+            this.discount[size] = discount != null ? discount : 0;
+            this.feeFree[size] = feeFree;
+            size++;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public long id(int i) {
+            return ids[i];
+        }
+
+        public double discount(int i) {
+            return discount[i];
+        }
+
+        public double totalCost(int i) {
+            return totalCost[i];
+        }
+
+        public double netCost(int i) {
+            return netCost[i];
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.PostApet.Service;
+
+import com.example.PostApet.Model.PetModel;
+import com.example.PostApet.dto.PetDto;
+import com.example.PostApet.dto.PetFields;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The newest approved, available pets as already-serialized PetDto JSON (full and
+ * summary view), newest first. Readers take an immutable snapshot without locking; writers swap in a
+ * new snapshot with compare-and-set.
+ */
+@Service
+public class RecentApprovedFeed implements PetChangeListener {
+
+    public static final int CAPACITY = 64;
+
+    private final ObjectMapper objectMapper;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(new Snapshot(List.of(), false, false));
+    private volatile boolean ready;
+
+    /**
+     * truncated is set once an approved pet fell off the end, which means the
+     * feed may no longer hold every approved pet younger than its last entry.
+     * stale is set when an entry's owner changed their profile: the serialized
+     * owner fields are out of date until the feed is reseeded.
+     */
+    public record Snapshot(List<Entry> entries, boolean truncated, boolean stale) {
+    }
+
+    public record Entry(long id, Long ownerId, byte[] json, byte[] summaryJson) {
+    }
+
+    public RecentApprovedFeed(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void onPetSaved(PetModel pet) {
+        if (pet.getId() == null) {
+            return;
+        }
+        if (!PetChangeListener.isApproved(pet) || Boolean.FALSE.equals(pet.getAvailable())) {
+            onPetDeleted(pet.getId());
+            return;
+        }
+
+        if (olderThanFeed(pet.getId())) {
+            // Would fall straight off the end; skip the serialization
+            return;
+        }
+
+        Entry entry = entry(pet);
+        Snapshot current;
+        Snapshot next;
+        do {
+            current = snapshot.get();
+            next = insert(current, entry);
+        } while (!snapshot.compareAndSet(current, next));
+    }
+
+    @Override
+    public void onCatalogLoaded() {
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void onPetDeleted(long petId) {
+        Snapshot current;
+        Snapshot next;
+        do {
+            current = snapshot.get();
+            List<Entry> entries = new ArrayList<>(current.entries());
+            if (!entries.removeIf(e -> e.id() == petId)) {
+                return;
+            }
+            next = new Snapshot(List.copyOf(entries), current.truncated(), current.stale());
+        } while (!snapshot.compareAndSet(current, next));
+    }
+
+    /**
+     * Called once an owner's profile update is committed; if the feed shows any of
+     * their pets, it is marked stale so the next read reseeds it from the database.
+     */
+    public void onOwnerUpdated(long ownerId) {
+        Snapshot current;
+        do {
+            current = snapshot.get();
+            if (current.stale() || current.entries().stream().noneMatch(e -> Long.valueOf(ownerId).equals(e.ownerId()))) {
+                return;
+            }
+        } while (!snapshot.compareAndSet(current, new Snapshot(current.entries(), current.truncated(), true)));
+    }
+
+    public Snapshot snapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Replaces the feed with pets read from the database, newest first, unless a
+     * write landed in between; in that case the newer in-memory state wins.
+     */
+    public void reseed(Snapshot expected, List<PetModel> newestFirst) {
+        List<Entry> entries = newestFirst.stream()
+                .limit(CAPACITY)
+                .map(this::entry)
+                .toList();
+        snapshot.compareAndSet(expected, new Snapshot(entries, newestFirst.size() >= CAPACITY, false));
+    }
+
+    /**
+     * Writes the first limit entries as a JSON array, in the summary view if asked.
+     */
+    public static byte[] render(Snapshot snapshot, int limit, boolean summary) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write('[');
+        List<Entry> entries = snapshot.entries();
+        for (int i = 0; i < Math.min(limit, entries.size()); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.writeBytes(summary ? entries.get(i).summaryJson() : entries.get(i).json());
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+
+    private boolean olderThanFeed(long petId) {
+        Snapshot current;
+        do {
+            current = snapshot.get();
+            List<Entry> entries = current.entries();
+            if (entries.size() < CAPACITY || petId >= entries.get(entries.size() - 1).id()) {
+                return false;
+            }
+            if (current.truncated()) {
+                return true;
+            }
+        } while (!snapshot.compareAndSet(current, new Snapshot(current.entries(), true, current.stale())));
+        return true;
+    }
+
+    private static Snapshot insert(Snapshot current, Entry entry) {
+        List<Entry> entries = new ArrayList<>(current.entries());
+        entries.removeIf(e -> e.id() == entry.id());
+        int position = 0;
+        while (position < entries.size() && entries.get(position).id() > entry.id()) {
+            position++;
+        }
+        entries.add(position, entry);
+        boolean truncated = current.truncated();
+        if (entries.size() > CAPACITY) {
+            entries.remove(entries.size() - 1);
+            truncated = true;
+        }
+        return new Snapshot(List.copyOf(entries), truncated, current.stale());
+    }
+
+    private Entry entry(PetModel pet) {
+        PetDto dto = PetDto.fromEntity(pet);
+        try {
+            return new Entry(pet.getId(), dto.getOwnerId(), objectMapper.writeValueAsBytes(dto),
+                    objectMapper.writer(PetFields.filterProvider(PetFields.SUMMARY)).writeValueAsBytes(dto));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize pet " + pet.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.example.PostApet.Service;
+
+import com.example.PostApet.exceptions.UploadRejectedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Uploads that survive dropped connections (the tus protocol, minus its
+ * extensions): the client declares the size, sends the bytes in as many PATCHes
+ * as it takes, asks for the offset after a failure and carries on from there, and
+ * finishes the upload once everything has arrived. Finishing runs the usual
+ * {@link FileStorageService} checks and stores the file; the upload id can then be
+ * claimed by a pet post in place of a multipart photo.
+ * <p>
+ * The received bytes are a part file under uploads/.tmp/resumable, whose size is
+ * the offset; resumable_uploads holds the owner, the declared length and, once
+ * finished, the stored URL. Uploads untouched for file.resumable-expiry are
+ * removed by {@link #expire()}, releasing a finished file nobody claimed.
+ * <p>
+ * Appending and finishing hold the row's lock (locked_by, locked_until), taken by
+ * a conditional UPDATE so it holds across instances; a second writer is refused,
+ * not queued. The lock is a lease renewed while the bytes flow, so a crashed
+ * holder releases it by running out. Expiry and cancelling only delete a row
+ * nobody holds.
+ */
+@Slf4j
+@Service
+public class ResumableUploadService {
+
+    public record Status(String id, long offset, long length, String url) {
+    }
+
+    // Held locks are renewed while bytes flow; a holder that dies releases after this
+    private static final Duration LOCK_LEASE = Duration.ofMinutes(2);
+    // Lease times are on the database clock, the one every instance shares
+    private static final String LEASE_END = "NOW(6) + INTERVAL " + LOCK_LEASE.toSeconds() + " SECOND";
+    // No live holder: never locked, released, or the lease ran out
+    private static final String UNLOCKED = "(locked_by IS NULL OR locked_until < NOW(6))";
+
+    private final FileStorageService fileStorageService;
+    private final JdbcTemplate jdbcTemplate;
+    private final Path partLocation;
+    private final long maxSize;
+    private final Duration expiry;
+
+    public ResumableUploadService(FileStorageService fileStorageService,
+                                  JdbcTemplate jdbcTemplate,
+                                  @Value("${file.upload-dir}") String uploadDir,
+                                  @Value("${file.max-size:10MB}") DataSize maxSize,
+                                  @Value("${file.resumable-expiry:24h}") Duration expiry) throws IOException {
+        this.fileStorageService = fileStorageService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.partLocation = Paths.get(uploadDir).toAbsolutePath().normalize().resolve(".tmp").resolve("resumable");
+        this.maxSize = maxSize.toBytes();
+        this.expiry = expiry;
+        Files.createDirectories(partLocation);
+    }
+
+    public Status create(long userId, long length) throws IOException {
+        if (length <= 0) {
+            throw new UploadRejectedException(HttpStatus.BAD_REQUEST, "Upload-Length must be positive");
+        }
+        if (length > maxSize) {
+            throw new UploadRejectedException(HttpStatus.PAYLOAD_TOO_LARGE, "File is larger than " + maxSize + " bytes");
+        }
+        String id = UUID.randomUUID().toString();
+        Files.createFile(part(id));
+        jdbcTemplate.update("INSERT INTO resumable_uploads (id, user_id, upload_length, url, expires_at) "
+                + "VALUES (?, ?, ?, NULL, ?)", id, userId, length, expiresAt());
+        return new Status(id, 0, length, null);
+    }
+
+    public Status status(String id, long userId) throws IOException {
+        Map<String, Object> upload = find(id, userId);
+        long length = ((Number) upload.get("upload_length")).longValue();
+        String url = (String) upload.get("url");
+        return new Status(id, url != null ? length : Files.size(part(id)), length, url);
+    }
+
+    /**
+     * Appends the body at offset, which must be where the upload stands. Bytes
+     * received before a dropped connection are kept. Returns the new offset.
+     */
+    public long append(String id, long userId, long offset, InputStream body) throws IOException {
+        Map<String, Object> upload = find(id, userId);
+        if (upload.get("url") != null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Upload is already finished");
+        }
+        long length = ((Number) upload.get("upload_length")).longValue();
+        Lock lock = lock(id);
+        try (FileChannel channel = FileChannel.open(part(id), StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            long current = channel.size();
+            if (offset != current) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Upload is at offset " + current);
+            }
+            byte[] buffer = new byte[8192];
+            int n;
+            try {
+                while (current < length && (n = body.read(buffer, 0, (int) Math.min(buffer.length, length - current))) > 0) {
+                    lock.renewIfDue();
+                    channel.write(ByteBuffer.wrap(buffer, 0, n));
+                    current += n;
+                }
+            } finally {
+                jdbcTemplate.update("UPDATE resumable_uploads SET expires_at = ? WHERE id = ?", expiresAt(), id);
+            }
+            if (current == length && body.read() >= 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Chunk runs past Upload-Length");
+            }
+            return current;
+        } finally {
+            lock.release();
+        }
+    }
+
+    /**
+     * Validates and stores a fully received upload; finishing twice returns the same URL.
+     */
+    public Status finish(String id, long userId) throws IOException {
+        Map<String, Object> upload = find(id, userId);
+        long length = ((Number) upload.get("upload_length")).longValue();
+        if (upload.get("url") != null) {
+            return new Status(id, length, length, (String) upload.get("url"));
+        }
+        Lock lock = lock(id);
+        try {
+            Path part = part(id);
+            if (Files.size(part) != length) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Upload is incomplete");
+            }
+            String url;
+            try (InputStream in = Files.newInputStream(part)) {
+                url = fileStorageService.store(in, "pet-images/uploads");
+            } catch (UploadRejectedException e) {
+                jdbcTemplate.update("DELETE FROM resumable_uploads WHERE id = ?", id);
+                Files.deleteIfExists(part);
+                throw e;
+            }
+            try {
+                jdbcTemplate.update("UPDATE resumable_uploads SET url = ?, expires_at = ? WHERE id = ?", url, expiresAt(), id);
+            } catch (RuntimeException e) {
+                fileStorageService.delete(url); // nothing records the reference
+                throw e;
+            }
+            Files.deleteIfExists(part);
+            return new Status(id, length, length, url);
+        } finally {
+            lock.release();
+        }
+    }
+
+    /**
+     * Hands the stored file of a finished upload over to the caller, who now owns
+     * its reference; an upload can be claimed once.
+     */
+    public String claim(String id, long userId) {
+        Map<String, Object> upload = find(id, userId);
+        String url = (String) upload.get("url");
+        if (url == null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Upload is not finished");
+        }
+        if (jdbcTemplate.update("DELETE FROM resumable_uploads WHERE id = ? AND url IS NOT NULL", id) == 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Upload not found");
+        }
+        return url;
+    }
+
+    public void cancel(String id, long userId) throws IOException {
+        String url = (String) find(id, userId).get("url");
+        if (jdbcTemplate.update("DELETE FROM resumable_uploads WHERE id = ? AND " + UNLOCKED, id) > 0) {
+            discard(id, url);
+        } else if (!jdbcTemplate.queryForList("SELECT id FROM resumable_uploads WHERE id = ?", String.class, id).isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Another request is writing this upload");
+        }
+    }
+
+    /**
+     * Removes uploads past their expiry, and part files left without a row.
+     */
+    public void expire() {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Map<String, Object>> expired = jdbcTemplate.queryForList(
+                "SELECT id, url FROM resumable_uploads WHERE expires_at < ? AND " + UNLOCKED, now);
+        for (Map<String, Object> upload : expired) {
+            String id = (String) upload.get("id");
+            try {
+                // Rechecked in the DELETE: a writer may have taken the lock since the SELECT
+                if (jdbcTemplate.update("DELETE FROM resumable_uploads WHERE id = ? AND expires_at < ? AND " + UNLOCKED,
+                        id, now) > 0) {
+                    discard(id, (String) upload.get("url"));
+                }
+            } catch (IOException e) {
+                log.warn("Could not remove expired upload {}: {}", id, e.getMessage());
+            }
+        }
+
+        Instant cutoff = Instant.now().minus(expiry);
+        try (DirectoryStream<Path> parts = Files.newDirectoryStream(partLocation)) {
+            for (Path part : parts) {
+                if (Files.getLastModifiedTime(part).toInstant().isBefore(cutoff)) {
+                    String id = part.getFileName().toString().replace(".part", "");
+                    Integer rows = jdbcTemplate.queryForObject(
+                            "SELECT COUNT(*) FROM resumable_uploads WHERE id = ?", Integer.class, id);
+                    if (rows == null || rows == 0) {
+                        Files.deleteIfExists(part);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not sweep {}: {}", partLocation, e.getMessage());
+        }
+    }
+
+    private void discard(String id, String url) throws IOException {
+        Files.deleteIfExists(part(id));
+        if (url != null) {
+            fileStorageService.delete(url); // finished but never claimed
+        }
+    }
+
+    private Map<String, Object> find(String id, long userId) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT upload_length, url FROM resumable_uploads WHERE id = ? AND user_id = ?", id, userId);
+        if (rows.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Upload not found");
+        }
+        return rows.get(0);
+    }
+
+    private Lock lock(String id) {
+        String token = UUID.randomUUID().toString();
+        if (jdbcTemplate.update("UPDATE resumable_uploads SET locked_by = ?, locked_until = " + LEASE_END
+                + " WHERE id = ? AND url IS NULL AND " + UNLOCKED, token, id) == 0) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Another request is writing this upload");
+        }
+        return new Lock(id, token);
+    }
+
+    /**
+     * A held upload lock. The lease is renewed once half of it has passed; a holder
+     * that finds the lock gone (it lapsed and was taken) stops writing.
+     */
+    private class Lock {
+        private final String id;
+        private final String token;
+        private long renewAt = System.nanoTime() + LOCK_LEASE.toNanos() / 2;
+
+        private Lock(String id, String token) {
+            this.id = id;
+            this.token = token;
+        }
+
+        void renewIfDue() {
+            if (System.nanoTime() - renewAt < 0) {
+                return;
+            }
+            if (jdbcTemplate.update("UPDATE resumable_uploads SET locked_until = " + LEASE_END
+                    + " WHERE id = ? AND locked_by = ?", id, token) == 0) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Upload lock was lost");
+            }
+            renewAt = System.nanoTime() + LOCK_LEASE.toNanos() / 2;
+        }
+
+        void release() {
+            jdbcTemplate.update("UPDATE resumable_uploads SET locked_by = NULL, locked_until = NULL "
+                    + "WHERE id = ? AND locked_by = ?", id, token);
+        }
+    }
+
+    private Path part(String id) {
+        // ids are UUIDs we issued; anything else would not have matched a row
+        return partLocation.resolve(UUID.fromString(id) + ".part");
+    }
+
+    private Timestamp expiresAt() {
+        return Timestamp.from(Instant.now().plus(expiry));
+    }
+}
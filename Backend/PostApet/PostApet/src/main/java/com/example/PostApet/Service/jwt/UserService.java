@@ -1,17 +1,25 @@
 package com.example.PostApet.Service.jwt;
 
+import com.example.PostApet.Model.PetModel;
 import com.example.PostApet.Model.User;
 import com.example.PostApet.Repository.UserRepository;
 import com.example.PostApet.dto.UpdateProfileRequest;
 import com.example.PostApet.dto.UserDto;
 import com.example.PostApet.util.FileUploadUtil;
+import com.example.PostApet.Service.CatalogVersion;
 import com.example.PostApet.Service.EmailService;
+import com.example.PostApet.Service.FileStorageService;
+import com.example.PostApet.Service.PetChangeListener;
+import com.example.PostApet.Service.RecentApprovedFeed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -24,13 +32,25 @@ public class UserService implements UserDetailsService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final EmailService emailService;
+    private final CatalogVersion catalogVersion;
+    private final List<PetChangeListener> petChangeListeners;
+    private final FileStorageService fileStorageService;
+    private final RecentApprovedFeed recentFeed;
 
     public UserService(UserRepository userRepository,
                        PasswordEncoder passwordEncoder,
-                       EmailService emailService) {
+                       EmailService emailService,
+                       CatalogVersion catalogVersion,
+                       List<PetChangeListener> petChangeListeners,
+                       FileStorageService fileStorageService,
+                       RecentApprovedFeed recentFeed) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.emailService = emailService;
+        this.catalogVersion = catalogVersion;
+        this.petChangeListeners = petChangeListeners;
+        this.fileStorageService = fileStorageService;
+        this.recentFeed = recentFeed;
     }
 
 
@@ -79,6 +99,9 @@ public class UserService implements UserDetailsService {
         }
 
         User updatedUser = userRepository.save(user);
+        // The feed serialized the old owner name and photo
+        recentFeed.onOwnerUpdated(updatedUser.getId());
+        catalogVersion.bumpOwners();
 
         emailService.sendEmail(user.getEmail(),
                 "Profile Updated",
@@ -123,6 +146,7 @@ public class UserService implements UserDetailsService {
      *
      * @param userId ID of the user to delete
      */
+    @Transactional
     public void deleteUserById(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
@@ -131,9 +155,11 @@ public class UserService implements UserDetailsService {
                 "Account Deleted",
                 "Your profile has been deleted from the system.");
 
+        removePets(user);
         userRepository.delete(user);
     }
 
+    @Transactional
     public boolean deleteAccount(String email, String password) {
         User user = userRepository.findFirstByEmail(email)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
@@ -149,7 +175,26 @@ public class UserService implements UserDetailsService {
                 "Account Deleted",
                 "Your profile has been deleted from the system.");
 
+        removePets(user);
         userRepository.delete(user);
         return true;
     }
-}
\ No newline at end of file
+
+    // Pets are removed by cascade with their owner, so the in-memory catalog views are
+    // told here, once the delete has committed; a failed delete leaves them untouched.
+    // Their photos and the profile image give up their references at the same point.
+    private void removePets(User user) {
+        List<PetModel> pets = user.getPets() != null ? user.getPets() : List.of();
+        List<Long> petIds = pets.stream().map(PetModel::getId).toList();
+        pets.forEach(pet -> fileStorageService.release(pet.getPhoto()));
+        fileStorageService.release(user.getProfileImage());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                petIds.forEach(id -> petChangeListeners.forEach(listener -> listener.onPetDeleted(id)));
+                petIds.forEach(catalogVersion::onPetDeleted);
+                catalogVersion.bumpOwners();
+            }
+        });
+    }
+}
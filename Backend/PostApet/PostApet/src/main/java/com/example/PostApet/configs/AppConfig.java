@@ -1,13 +1,27 @@
 package com.example.PostApet.configs;
 
+import com.example.PostApet.Service.ResumableUploadService;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
 import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import java.time.Duration;
+import java.util.concurrent.ThreadPoolExecutor;
+
 @Configuration
+@EnableAsync
 public class AppConfig {
 
     @Bean
@@ -20,4 +34,69 @@ public class AppConfig {
     public ModelMapper modelMapper() {
         return new ModelMapper();
     }
-}
\ No newline at end of file
+
+    // PetDto carries a @JsonFilter for sparse fieldsets; without a filter set on the
+    // response it is written in full
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer petFieldsFilter() {
+        return builder -> builder.filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+    }
+
+    // Defining the executors below makes Boot back off from its own, which MVC async
+    // (StreamingResponseBody, the catalog export) and plain @Async run on; without this
+    // they would fall back to a thread per task. Sized by spring.task.execution.pool.*
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    // Outgoing mail is queued here so SMTP latency never holds a request thread
+    @Bean
+    public ThreadPoolTaskExecutor mailExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(10000);
+        executor.setThreadNamePrefix("mail-");
+        // When the queue is full the caller sends the mail itself rather than dropping it
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    // Bulk pet imports; a full queue is refused rather than run on the request thread
+    @Bean
+    public ThreadPoolTaskExecutor importExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(20);
+        executor.setThreadNamePrefix("pet-import-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    // Image variants; uploads return before the resize, and a full queue skips it
+    @Bean
+    public ThreadPoolTaskExecutor imageExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("image-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    // Abandoned resumable uploads
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolTaskScheduler resumableUploadExpiry(ResumableUploadService resumableUploadService,
+                                                         @Value("${file.resumable-expiry-check:15m}") Duration interval) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix("upload-expiry-");
+        scheduler.initialize();
+        scheduler.scheduleWithFixedDelay(resumableUploadService::expire, interval);
+        return scheduler;
+    }
+}
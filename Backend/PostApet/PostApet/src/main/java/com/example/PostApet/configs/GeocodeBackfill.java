@@ -0,0 +1,81 @@
+package com.example.PostApet.configs;
+
+import com.example.PostApet.Model.PetModel;
+import com.example.PostApet.Model.User;
+import com.example.PostApet.util.Gazetteer;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Geocodes pets and users stored before they had coordinates, from their
+ * location text and the offline gazetteer. Same shape as {@link PetAgeBackfill}:
+ * keyset batches over the rows still missing coordinates, before the in-memory
+ * indexes load; locations the gazetteer does not know stay null.
+ * <p>
+ * Every row looked up is marked geocode_attempted, so one the gazetteer does not
+ * know is not read again on the next start.
+ */
+@Slf4j
+@Component
+public class GeocodeBackfill implements InitializingBean {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public GeocodeBackfill(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        int pets = backfill("pet_model");
+        if (pets > 0) {
+            entityManagerFactory.getCache().evict(PetModel.class);
+        }
+        // user is a reserved word in MySQL
+        int users = backfill("`user`");
+        if (users > 0) {
+            entityManagerFactory.getCache().evict(User.class);
+        }
+        if (pets + users > 0) {
+            log.info("Geocoded {} pets and {} users", pets, users);
+        }
+    }
+
+    private int backfill(String table) {
+        long afterId = 0;
+        int updated = 0;
+        List<Map<String, Object>> rows;
+        do {
+            rows = jdbcTemplate.queryForList("SELECT id, location FROM " + table
+                    + " WHERE geocode_attempted = FALSE AND latitude IS NULL AND location IS NOT NULL"
+                    + " AND id > ? ORDER BY id LIMIT ?", afterId, BATCH_SIZE);
+            // Unknown locations are written back as null coordinates, which marks them attempted
+            List<Object[]> batch = rows.stream()
+                    .map(row -> {
+                        Gazetteer.Place place = Gazetteer.lookup((String) row.get("location"));
+                        return place == null ? new Object[]{null, null, row.get("id")}
+                                : new Object[]{place.latitude(), place.longitude(), row.get("id")};
+                    })
+                    .toList();
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE " + table
+                        + " SET latitude = ?, longitude = ?, geocode_attempted = TRUE WHERE id = ?", batch);
+                updated += (int) batch.stream().filter(args -> args[0] != null).count();
+            }
+            if (!rows.isEmpty()) {
+                afterId = ((Number) rows.get(rows.size() - 1).get("id")).longValue();
+            }
+        } while (rows.size() == BATCH_SIZE);
+        return updated;
+    }
+}
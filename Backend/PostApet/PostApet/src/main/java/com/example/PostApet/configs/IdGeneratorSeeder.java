@@ -0,0 +1,46 @@
+package com.example.PostApet.configs;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Moves tables that used AUTO_INCREMENT ids over to the pooled id_generators rows.
+ * Each row is raised to at least MAX(id) + ALLOCATION_SIZE, so the first block
+ * Hibernate hands out starts after the existing rows. Raising is idempotent and
+ * never lowers a row, so it is safe on every start and with several instances.
+ * <p>
+ * Runs after the schema migrations and the EntityManagerFactory, and before the
+ * web server accepts requests.
+ */
+@Slf4j
+@Component
+public class IdGeneratorSeeder implements InitializingBean {
+
+    // Must match allocationSize on the entities' @TableGenerator
+    public static final int ALLOCATION_SIZE = 50;
+
+    // Generator row name, which is also the entity's table name
+    private static final List<String> TABLES = List.of("pet_model", "messages", "favorites", "admin_activity");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdGeneratorSeeder(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        for (String table : TABLES) {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            jdbcTemplate.update("INSERT INTO id_generators (sequence_name, next_val) VALUES (?, ?) "
+                            + "ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val))",
+                    table, maxId + ALLOCATION_SIZE);
+            log.debug("id_generators.{} raised to at least {}", table, maxId + ALLOCATION_SIZE);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.PostApet.configs;
+
+import com.example.PostApet.Model.PetModel;
+import com.example.PostApet.util.AgeUtil;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fills the numeric columns for rows written before they existed: age_months from
+ * the free-text age, and adoption_fee = 0 for fee-free pets stored without a fee.
+ * Walks the rows still missing age_months in id order, BATCH_SIZE at a time, so a
+ * run always terminates; rows whose age cannot be read keep a null age_months.
+ * Every row parsed is marked age_parse_attempted, so an unreadable age is not
+ * read again on the next start.
+ * <p>
+ * Runs before the in-memory indexes are loaded and before requests are served.
+ */
+@Slf4j
+@Component
+public class PetAgeBackfill implements InitializingBean {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public PetAgeBackfill(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        long afterId = 0;
+        int updated = 0;
+        List<Map<String, Object>> rows;
+        do {
+            rows = jdbcTemplate.queryForList("SELECT id, age FROM pet_model "
+                    + "WHERE age_parse_attempted = FALSE AND age_months IS NULL AND age IS NOT NULL "
+                    + "AND id > ? ORDER BY id LIMIT ?", afterId, BATCH_SIZE);
+            // Unreadable ages are written back as a null age_months, which marks them attempted
+            List<Object[]> batch = rows.stream()
+                    .map(row -> new Object[]{AgeUtil.toMonths((String) row.get("age")), row.get("id")})
+                    .toList();
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE pet_model SET age_months = ?, age_parse_attempted = TRUE WHERE id = ?", batch);
+                updated += (int) batch.stream().filter(args -> args[0] != null).count();
+            }
+            if (!rows.isEmpty()) {
+                afterId = ((Number) rows.get(rows.size() - 1).get("id")).longValue();
+            }
+        } while (rows.size() == BATCH_SIZE);
+
+        updated += jdbcTemplate.update("UPDATE pet_model SET adoption_fee = 0 "
+                + "WHERE adoption_fee_free = TRUE AND adoption_fee IS NULL");
+
+        if (updated > 0) {
+            // Cached pets were read before the columns were filled
+            entityManagerFactory.getCache().evict(PetModel.class);
+            log.info("Backfilled numeric age/fee columns on {} pets", updated);
+        }
+    }
+}
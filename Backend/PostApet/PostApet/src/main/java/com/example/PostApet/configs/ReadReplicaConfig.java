@@ -0,0 +1,82 @@
+package com.example.PostApet.configs;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read/write splitting, on when replicas.urls lists at least one replica.
+ * <p>
+ * The application DataSource is a {@link LazyConnectionDataSourceProxy}: it only
+ * takes a real connection at the first statement, after the transaction manager
+ * has marked the connection read-only or not. Read-only transactions (the
+ * readOnly service methods and Spring Data's finders) then read from
+ * {@link ReplicaRoutingDataSource}; everything else, and any connection taken
+ * outside a transaction, uses the primary. Schema migrations and the startup
+ * backfills therefore always run on the primary.
+ * <p>
+ * Replicas share the primary's username and password. Entities read from a
+ * lagging replica can land in the second-level cache; they are replaced on the
+ * next write and expire with the region TTLs in ehcache.xml.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "replicas", name = "urls")
+public class ReadReplicaConfig {
+
+    @Bean
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaDataSource(DataSourceProperties properties,
+                                                      HikariDataSource primaryDataSource,
+                                                      @Value("${replicas.urls}") List<String> urls,
+                                                      @Value("${replicas.pool-size:10}") int poolSize) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (String url : urls) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class).url(url.trim()).build();
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            // A dead replica must fail fast so the read can go to the primary
+            replica.setConnectionTimeout(Duration.ofSeconds(1).toMillis());
+            // Do not fail startup when a replica is down; the health check brings it in later
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRoutingDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolTaskScheduler replicaHealthCheck(ReplicaRoutingDataSource replicaDataSource,
+                                                      @Value("${replicas.health-check-interval:5s}") Duration interval) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix("replica-health-");
+        scheduler.initialize();
+        scheduler.scheduleWithFixedDelay(replicaDataSource::checkHealth, interval);
+        return scheduler;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.PostApet.configs;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-your-writes on top of {@link ReplicaRoutingDataSource}. A request that can
+ * write (anything but GET, HEAD and OPTIONS) runs entirely on the primary, and so
+ * do the same client's requests for the next replicas.read-your-writes window, by
+ * which time the replicas have caught up: a pet posted a moment ago shows up in
+ * /my-pets. The client is its bearer token, or its address when it has none.
+ * <p>
+ * Runs ahead of Spring Security, so the JWT user lookup is routed the same way.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+@ConditionalOnProperty(prefix = "replicas", name = "urls")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final int PURGE_THRESHOLD = 10_000;
+
+    // client -> until when its reads stay on the primary (epoch millis)
+    private final Map<String, Long> primaryUntil = new ConcurrentHashMap<>();
+    private final long windowMillis;
+
+    public ReadYourWritesFilter(@Value("${replicas.read-your-writes:5s}") Duration window) {
+        this.windowMillis = window.toMillis();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String client = client(request);
+        boolean write = !isSafe(request.getMethod());
+        long now = System.currentTimeMillis();
+        Long until = primaryUntil.get(client);
+        if (until != null && until < now) {
+            primaryUntil.remove(client, until);
+            until = null;
+        }
+
+        ReplicaRoutingDataSource.setPrimaryOnly(write || until != null);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.setPrimaryOnly(false);
+            if (write) {
+                primaryUntil.put(client, System.currentTimeMillis() + windowMillis);
+                if (primaryUntil.size() > PURGE_THRESHOLD) {
+                    long cutoff = System.currentTimeMillis();
+                    primaryUntil.values().removeIf(expiry -> expiry < cutoff);
+                }
+            }
+        }
+    }
+
+    private static boolean isSafe(String method) {
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+
+    private static String client(HttpServletRequest request) {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        return authorization != null ? authorization : request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.PostApet.configs;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Versioned schema migrations from classpath:db/migration, replacing ddl-auto.
+ * Scripts are named V&lt;version&gt;__&lt;description&gt;.sql and each runs once, in
+ * version order; schema_history records what ran with a checksum, and a script
+ * edited after it ran stops startup rather than leaving the schema out of step.
+ * <p>
+ * Runs before the EntityManagerFactory is built, so every other startup bean
+ * (id seeding, backfills, index loads) sees the migrated schema. A MySQL named
+ * lock keeps instances starting together from running the same script twice.
+ */
+@Slf4j
+@Component(SchemaMigrations.BEAN_NAME)
+public class SchemaMigrations implements InitializingBean {
+
+    public static final String BEAN_NAME = "schemaMigrations";
+
+    private static final String LOCATION = "classpath:db/migration/V*__*.sql";
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final String LOCK_NAME = "posturpet_schema_migrations";
+    private static final int LOCK_TIMEOUT_SECONDS = 300;
+
+    private record Migration(int version, String description, Resource script, long checksum) {
+    }
+
+    private final DataSource dataSource;
+
+    public SchemaMigrations(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws SQLException {
+        List<Migration> migrations = findMigrations();
+        try (Connection connection = dataSource.getConnection()) {
+            // Lock, history and scripts all on one connection: GET_LOCK is per session
+            JdbcTemplate jdbc = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            Integer locked = jdbc.queryForObject("SELECT GET_LOCK(?, ?)", Integer.class, LOCK_NAME, LOCK_TIMEOUT_SECONDS);
+            if (locked == null || locked != 1) {
+                throw new IllegalStateException("Timed out waiting for another instance to finish schema migrations");
+            }
+            try {
+                migrate(connection, jdbc, migrations);
+            } finally {
+                jdbc.queryForObject("SELECT RELEASE_LOCK(?)", Integer.class, LOCK_NAME);
+            }
+        }
+    }
+
+    private void migrate(Connection connection, JdbcTemplate jdbc, List<Migration> migrations) {
+        jdbc.execute("CREATE TABLE IF NOT EXISTS schema_history ("
+                + "version INT NOT NULL PRIMARY KEY, "
+                + "description VARCHAR(200) NOT NULL, "
+                + "checksum BIGINT NOT NULL, "
+                + "installed_on DATETIME(6) NOT NULL, "
+                + "execution_ms BIGINT NOT NULL) ENGINE = InnoDB");
+
+        Map<Integer, Long> applied = new HashMap<>();
+        for (Map<String, Object> row : jdbc.queryForList("SELECT version, checksum FROM schema_history")) {
+            applied.put(((Number) row.get("version")).intValue(), ((Number) row.get("checksum")).longValue());
+        }
+
+        for (Migration migration : migrations) {
+            Long checksum = applied.get(migration.version());
+            if (checksum != null) {
+                if (checksum != migration.checksum()) {
+                    throw new IllegalStateException("Migration V" + migration.version()
+                            + " was changed after it was applied; add a new migration instead");
+                }
+                continue;
+            }
+            long started = System.currentTimeMillis();
+            // MySQL DDL commits implicitly, so a failed script is not rolled back and
+            // must be repaired by hand before it is retried
+            ScriptUtils.executeSqlScript(connection, migration.script());
+            long elapsed = System.currentTimeMillis() - started;
+            jdbc.update("INSERT INTO schema_history (version, description, checksum, installed_on, execution_ms) "
+                            + "VALUES (?, ?, ?, NOW(6), ?)",
+                    migration.version(), migration.description(), migration.checksum(), elapsed);
+            log.info("Applied schema migration V{} {} in {} ms", migration.version(), migration.description(), elapsed);
+        }
+    }
+
+    private static List<Migration> findMigrations() {
+        try {
+            Resource[] scripts = new PathMatchingResourcePatternResolver().getResources(LOCATION);
+            Map<Integer, Migration> byVersion = new HashMap<>();
+            for (Resource script : scripts) {
+                Matcher name = SCRIPT_NAME.matcher(script.getFilename());
+                if (!name.matches()) {
+                    throw new IllegalStateException("Badly named migration: " + script.getFilename());
+                }
+                CRC32 crc = new CRC32();
+                crc.update(StreamUtils.copyToByteArray(script.getInputStream()));
+                Migration migration = new Migration(Integer.parseInt(name.group(1)),
+                        name.group(2).replace('_', ' '), script, crc.getValue());
+                if (byVersion.put(migration.version(), migration) != null) {
+                    throw new IllegalStateException("Two migrations with version " + migration.version());
+                }
+            }
+            return byVersion.values().stream().sorted(Comparator.comparingInt(Migration::version)).toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + LOCATION, e);
+        }
+    }
+
+    /**
+     * Makes the EntityManagerFactory, and with it every repository, wait for the migrations.
+     */
+    @Component
+    static class EntityManagerFactoryDependsOnMigrations extends EntityManagerFactoryDependsOnPostProcessor {
+
+        EntityManagerFactoryDependsOnMigrations() {
+            super(BEAN_NAME);
+        }
+    }
+}
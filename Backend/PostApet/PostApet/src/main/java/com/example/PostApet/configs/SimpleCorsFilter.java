@@ -12,7 +12,7 @@ import org.springframework.stereotype.Component;
 import java.io.IOException;
 
 @Component
-@Order(Ordered.HIGHEST_PRECEDENCE)
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
 public class SimpleCorsFilter implements Filter {
 
     @Override
@@ -33,11 +33,11 @@ public class SimpleCorsFilter implements Filter {
 
         String originHeader = request.getHeader("Origin");  // Fetch Origin header
         response.setHeader("Access-Control-Allow-Origin", originHeader != null ? originHeader : "http://localhost:3000");
-        response.setHeader("Access-Control-Allow-Methods", "POST, GET, PUT, PATCH, DELETE, OPTIONS");
-        response.setHeader("Access-Control-Allow-Headers", "Authorization, Content-Type, Accept");
+        response.setHeader("Access-Control-Allow-Methods", "POST, GET, HEAD, PUT, PATCH, DELETE, OPTIONS");
+        response.setHeader("Access-Control-Allow-Headers", "Authorization, Content-Type, Accept, Tus-Resumable, Upload-Length, Upload-Offset");
         response.setHeader("Access-Control-Allow-Credentials", "true");
         response.setHeader("Access-Control-Max-Age", "3600");
-        response.setHeader("Access-Control-Expose-Headers", "Content-Disposition");
+        response.setHeader("Access-Control-Expose-Headers", "Content-Disposition, Location, Tus-Resumable, Upload-Length, Upload-Offset");
 
         if (request.getRequestURI().startsWith("/uploads/")) {
             filterChain.doFilter(servletRequest, servletResponse);
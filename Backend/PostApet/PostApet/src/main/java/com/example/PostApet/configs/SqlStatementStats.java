@@ -0,0 +1,135 @@
+package com.example.PostApet.configs;
+
+import org.hibernate.Interceptor;
+import org.hibernate.SessionEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.type.Type;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Per-thread SQL statistics for the current HTTP request (or test): statements
+ * issued, time spent executing them over JDBC and entities hydrated from result
+ * sets. Hibernate instantiates this class three times, as statement inspector,
+ * interceptor and session listener (see application.properties); all instances
+ * record into the same thread-local.
+ * <p>
+ * A statement text seen {@link #N_PLUS_ONE_THRESHOLD} or more times in one request
+ * is the same query with different parameters, which is how an N+1 shows up.
+ */
+public class SqlStatementStats implements StatementInspector, Interceptor, SessionEventListener {
+
+    public static final int N_PLUS_ONE_THRESHOLD = 3;
+
+    private static final ThreadLocal<Stats> CURRENT = new ThreadLocal<>();
+
+    public static class Stats {
+        private int statements;
+        private long jdbcNanos;
+        private long executeStartedAt;
+        private int entities;
+        private final Map<String, Integer> counts = new LinkedHashMap<>();
+
+        public int getStatements() {
+            return statements;
+        }
+
+        public long getJdbcMillis() {
+            return jdbcNanos / 1_000_000;
+        }
+
+        /**
+         * Entities hydrated, not result set rows: DTO and scalar projections add
+         * nothing, and a fetch join adds one per distinct entity.
+         */
+        public int getEntities() {
+            return entities;
+        }
+
+        /**
+         * Distinct statement texts, in the order first issued.
+         */
+        public List<String> getSql() {
+            return List.copyOf(counts.keySet());
+        }
+
+        /**
+         * Statements repeated at least N_PLUS_ONE_THRESHOLD times, with their count.
+         */
+        public Map<String, Integer> getRepeatedStatements() {
+            return counts.entrySet().stream()
+                    .filter(e -> e.getValue() >= N_PLUS_ONE_THRESHOLD)
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        }
+
+        public boolean hasNPlusOne() {
+            return counts.values().stream().anyMatch(count -> count >= N_PLUS_ONE_THRESHOLD);
+        }
+    }
+
+    public static void start() {
+        CURRENT.set(new Stats());
+    }
+
+    public static Stats current() {
+        return CURRENT.get();
+    }
+
+    public static Stats stop() {
+        Stats stats = CURRENT.get();
+        CURRENT.remove();
+        return stats;
+    }
+
+    // StatementInspector: sees every SQL string before it is prepared
+    @Override
+    public String inspect(String sql) {
+        Stats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statements++;
+            stats.counts.merge(sql, 1, Integer::sum);
+        }
+        return sql;
+    }
+
+    // Interceptor: called once per entity read from a result set
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        Stats stats = CURRENT.get();
+        if (stats != null) {
+            stats.entities++;
+        }
+        return false;
+    }
+
+    // SessionEventListener: JDBC execution time
+    @Override
+    public void jdbcExecuteStatementStart() {
+        Stats stats = CURRENT.get();
+        if (stats != null) {
+            stats.executeStartedAt = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        Stats stats = CURRENT.get();
+        if (stats != null && stats.executeStartedAt != 0) {
+            stats.jdbcNanos += System.nanoTime() - stats.executeStartedAt;
+            stats.executeStartedAt = 0;
+        }
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        jdbcExecuteStatementStart();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        jdbcExecuteStatementEnd();
+    }
+}
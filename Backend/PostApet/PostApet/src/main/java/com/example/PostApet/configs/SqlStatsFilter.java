@@ -0,0 +1,130 @@
+package com.example.PostApet.configs;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects {@link SqlStatementStats} for every request. With sql-stats.headers=true
+ * (the dev profile) the numbers are returned as X-Sql-* response headers; they are
+ * always recorded as metrics tagged with the matched URI pattern.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class SqlStatsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final boolean exposeHeaders;
+
+    public SqlStatsFilter(MeterRegistry meterRegistry,
+                          @Value("${sql-stats.headers:false}") boolean exposeHeaders) {
+        this.meterRegistry = meterRegistry;
+        this.exposeHeaders = exposeHeaders;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (request.getRequestURI().startsWith("/uploads/")) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // A test may already be counting on this thread (MockMvc); keep adding to its stats
+        boolean nested = SqlStatementStats.current() != null;
+        if (!nested) {
+            SqlStatementStats.start();
+        }
+        try {
+            filterChain.doFilter(request, exposeHeaders ? new HeaderOnCommitResponse(response) : response);
+        } finally {
+            SqlStatementStats.Stats stats = nested ? SqlStatementStats.current() : SqlStatementStats.stop();
+            record(request, stats);
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlStatementStats.Stats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+        DistributionSummary.builder("http.server.sql.statements").tag("uri", uri)
+                .register(meterRegistry).record(stats.getStatements());
+        DistributionSummary.builder("http.server.sql.entities").tag("uri", uri)
+                .register(meterRegistry).record(stats.getEntities());
+        Timer.builder("http.server.sql.jdbc").tag("uri", uri)
+                .register(meterRegistry).record(stats.getJdbcMillis(), TimeUnit.MILLISECONDS);
+
+        if (stats.hasNPlusOne()) {
+            meterRegistry.counter("http.server.sql.n_plus_one", "uri", uri).increment();
+            log.warn("Possible N+1 on {} {}: {}", request.getMethod(), uri, stats.getRepeatedStatements());
+        }
+    }
+
+    private static void writeHeaders(HttpServletResponse response, SqlStatementStats.Stats stats) {
+        if (stats == null || response.isCommitted()) {
+            return;
+        }
+        response.setHeader("X-Sql-Statements", String.valueOf(stats.getStatements()));
+        response.setHeader("X-Sql-Time-Ms", String.valueOf(stats.getJdbcMillis()));
+        response.setHeader("X-Sql-Entities", String.valueOf(stats.getEntities()));
+        if (stats.hasNPlusOne()) {
+            response.setHeader("X-Sql-N-Plus-One", String.valueOf(stats.getRepeatedStatements().size()));
+        }
+    }
+
+    /**
+     * Adds the headers when the body is first written, which is after the handler
+     * has run its queries, without buffering the response.
+     */
+    private static class HeaderOnCommitResponse extends HttpServletResponseWrapper {
+        private boolean written;
+
+        HeaderOnCommitResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        private void beforeBody() {
+            if (!written) {
+                written = true;
+                writeHeaders((HttpServletResponse) getResponse(), SqlStatementStats.current());
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            beforeBody();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            beforeBody();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            beforeBody();
+            super.flushBuffer();
+        }
+    }
+}
@@ -1,23 +1,59 @@
 package com.example.PostApet.configs;
 
+import com.example.PostApet.Service.FileStorageService;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.CacheControl;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.PathResourceResolver;
 
-import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 
+/**
+ * /uploads/** through Spring's resource handling. With file.direct-serving on (the
+ * default) GET and HEAD are answered earlier by {@link UploadsFilter}, and this only
+ * sees what that filter passes on.
+ */
 @Configuration
 
 public class WebMvcConfig implements WebMvcConfigurer {
     @Value("${file.upload-dir}")
     private String uploadDir;
 
+    private final FileStorageService fileStorageService;
+
+    public WebMvcConfig(FileStorageService fileStorageService) {
+        this.fileStorageService = fileStorageService;
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         registry.addResourceHandler("/uploads/**")
                 .addResourceLocations("file:" + uploadDir + "/")
-                .setCacheControl(CacheControl.noCache()); // Disable caching
+                .setCacheControl(CacheControl.noCache()) // Disable caching
+                .resourceChain(false)
+                .addResolver(new VariantFallbackResolver());
+    }
+
+    /**
+     * Serves the original for an image variant (name-thumb.jpg) that the
+     * ImagePipeline has not written yet, so variant URLs work from the moment
+     * of upload.
+     */
+    private class VariantFallbackResolver extends PathResourceResolver {
+
+        @Override
+        protected Resource getResource(String resourcePath, Resource location) throws IOException {
+            Resource resource = super.getResource(resourcePath, location);
+            if (resource != null) {
+                return resource;
+            }
+            Path original = fileStorageService.resolveOriginal("/uploads/" + resourcePath);
+            return original != null ? new FileSystemResource(original) : null;
+        }
     }
 }
@@ -40,12 +40,15 @@ public class WebSecurityConfiguration {
                         .requestMatchers("/api/v1/auth/me").authenticated()
                         .requestMatchers("/api/v1/favorites/**").authenticated()
                         .requestMatchers(HttpMethod.DELETE, "/api/v1/favorites/**").authenticated()
+                        .requestMatchers("/api/v1/uploads/**").authenticated()
                         .requestMatchers("/uploads/**").permitAll()
                         .requestMatchers("/api/v1/contact").permitAll()
                         .requestMatchers("/api/chat").permitAll()
                         .requestMatchers("/api/v1/admin/**").hasAuthority(UserRole.ADMIN.name())
                         .requestMatchers("/api/v1/doctors/**").hasAuthority(UserRole.ADMIN.name())
                         .requestMatchers("/api/v1/employees/**").hasAuthority(UserRole.ADMIN.name())
+                        .requestMatchers(HttpMethod.PUT, "/api/v1/pets/status/bulk").hasAuthority(UserRole.ADMIN.name())
+                        .requestMatchers(HttpMethod.GET, "/api/v1/pets/export").hasAuthority(UserRole.ADMIN.name())
                         .requestMatchers("/api/v1/pets/**").permitAll()
                         .requestMatchers("/api/v1/messages/**").permitAll()
 
@@ -0,0 +1,21 @@
+package com.example.PostApet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ImportJobDto {
+    private String id;
+    private String status; // QUEUED, RUNNING, COMPLETED or FAILED
+    private String format;
+    private long rowsRead;
+    private long imported;
+    private long rejected;
+    private List<String> errors; // "line N: reason", capped
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
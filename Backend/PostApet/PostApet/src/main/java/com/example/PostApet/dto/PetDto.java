@@ -1,16 +1,26 @@
 package com.example.PostApet.dto;
 
 import com.example.PostApet.Model.PetModel;
+import com.example.PostApet.Service.ImagePipeline;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 
 @Data
+@JsonFilter(PetFields.FILTER)
 public class PetDto {
     private long id;
     private String petName;
     private String specie;
     private String breed;
     private String location;
+    private Double latitude;
+    private Double longitude;
+    // Only set on distance searches
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double distanceKm;
     private String age;
+    private Integer ageMonths;
     private String gender;
     private String reason;
     private String ifTemp;
@@ -20,6 +30,10 @@ public class PetDto {
     private String ownerName;
     private String nic;
     private String photoUrl; // This will be the full URL
+    // Resized copies for lists and cards (ImagePipeline), and a BlurHash to show while they load
+    private String photoThumbUrl;
+    private String photoCardUrl;
+    private String photoPlaceholder;
     private String regStatus;
     private String physicalStatus;
     private String docName;
@@ -58,7 +72,10 @@ public class PetDto {
         dto.setSpecie(pet.getSpecie());
         dto.setBreed(pet.getBreed());
         dto.setLocation(pet.getLocation());
+        dto.setLatitude(pet.getLatitude());
+        dto.setLongitude(pet.getLongitude());
         dto.setAge(pet.getAge());
+        dto.setAgeMonths(pet.getAgeMonths());
         dto.setGender(pet.getGender());
         dto.setReason(pet.getReason());
         dto.setIfTemp(pet.getIfTemp());
@@ -94,17 +111,30 @@ public class PetDto {
         }
 
 
-        // Convert photo path to full URL
-        if (pet.getPhoto() != null && !pet.getPhoto().startsWith("http")) {
-            dto.setPhotoUrl("http://localhost:8080" + pet.getPhoto());
-        } else {
-            dto.setPhotoUrl(pet.getPhoto());
-        }
+        dto.setPhotoUrl(photoUrl(pet.getPhoto()));
+        dto.setPhotoThumbUrl(photoVariantUrl(pet.getPhoto(), ImagePipeline.Variant.THUMB));
+        dto.setPhotoCardUrl(photoVariantUrl(pet.getPhoto(), ImagePipeline.Variant.CARD));
+        dto.setPhotoPlaceholder(pet.getPhotoPlaceholder());
 
 
         return dto;
     }
 
+    // Convert photo path to full URL
+    public static String photoUrl(String photo) {
+        if (photo != null && !photo.startsWith("http")) {
+            return "http://localhost:8080" + photo;
+        }
+        return photo;
+    }
+
+    public static String photoVariantUrl(String photo, ImagePipeline.Variant variant) {
+        if (photo == null || !photo.startsWith("/uploads/")) {
+            return photoUrl(photo);
+        }
+        return photoUrl(ImagePipeline.variantUrl(photo, variant));
+    }
+
     public Long getOwnerId() {
         return ownerId;
     }
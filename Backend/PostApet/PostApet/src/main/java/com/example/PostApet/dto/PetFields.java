@@ -0,0 +1,136 @@
+package com.example.PostApet.dto;
+
+import com.example.PostApet.Service.ImagePipeline;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Sparse fieldsets for PetDto lists: which JSON properties a client asked for
+ * (fields=a,b,c or view=summary), the entity path each one is read from, so
+ * only those columns are selected, and the Jackson filter that drops the rest.
+ */
+public class PetFields {
+
+    public static final String FILTER = "petFields";
+    public static final String SUMMARY_VIEW = "summary";
+
+    // What a pet card renders
+    public static final Set<String> SUMMARY = Set.of("id", "petName", "specie", "breed", "location", "age", "photoUrl",
+            "photoThumbUrl", "photoPlaceholder");
+
+    public record Field(String path, BiConsumer<PetDto, Object> setter) {
+    }
+
+    private static final Map<String, Field> FIELDS = new LinkedHashMap<>();
+
+    static {
+        add("id", "id", (dto, v) -> dto.setId((Long) v));
+        add("petName", "petName", (dto, v) -> dto.setPetName((String) v));
+        add("specie", "specie", (dto, v) -> dto.setSpecie((String) v));
+        add("breed", "breed", (dto, v) -> dto.setBreed((String) v));
+        add("location", "location", (dto, v) -> dto.setLocation((String) v));
+        add("latitude", "latitude", (dto, v) -> dto.setLatitude((Double) v));
+        add("longitude", "longitude", (dto, v) -> dto.setLongitude((Double) v));
+        add("age", "age", (dto, v) -> dto.setAge((String) v));
+        add("ageMonths", "ageMonths", (dto, v) -> dto.setAgeMonths((Integer) v));
+        add("gender", "gender", (dto, v) -> dto.setGender((String) v));
+        add("size", "size", (dto, v) -> dto.setSize((String) v));
+        add("reason", "reason", (dto, v) -> dto.setReason((String) v));
+        add("ifTemp", "ifTemp", (dto, v) -> dto.setIfTemp((String) v));
+        add("justify", "justify", (dto, v) -> dto.setJustify((String) v));
+        add("contactEmail", "contactEmail", (dto, v) -> dto.setContactEmail((String) v));
+        add("contactPhoneNumber", "contactPhoneNumber", (dto, v) -> dto.setContactPhoneNumber((String) v));
+        add("ownerName", "ownerName", (dto, v) -> dto.setOwnerName((String) v));
+        add("nic", "nic", (dto, v) -> dto.setNic((String) v));
+        add("photoUrl", "photo", (dto, v) -> dto.setPhotoUrl(PetDto.photoUrl((String) v)));
+        add("photoThumbUrl", "photo", (dto, v) ->
+                dto.setPhotoThumbUrl(PetDto.photoVariantUrl((String) v, ImagePipeline.Variant.THUMB)));
+        add("photoCardUrl", "photo", (dto, v) ->
+                dto.setPhotoCardUrl(PetDto.photoVariantUrl((String) v, ImagePipeline.Variant.CARD)));
+        add("photoPlaceholder", "photoPlaceholder", (dto, v) -> dto.setPhotoPlaceholder((String) v));
+        add("regStatus", "regStatus", (dto, v) -> dto.setRegStatus((String) v));
+        add("physicalStatus", "physicalStatus", (dto, v) -> dto.setPhysicalStatus((String) v));
+        add("docName", "docName", (dto, v) -> dto.setDocName((String) v));
+        add("docStatus", "docStatus", (dto, v) -> dto.setDocStatus((String) v));
+        add("totalCost", "totalCost", (dto, v) -> dto.setTotalCost((Double) v));
+        add("discount", "discount", (dto, v) -> dto.setDiscount((Double) v));
+        add("netCost", "netCost", (dto, v) -> dto.setNetCost((Double) v));
+        // PetDto exposes availability under both names
+        add("available", "isAvailable", (dto, v) -> dto.setAvailable((Boolean) v));
+        add("isAvailable", "isAvailable", (dto, v) -> dto.setAvailable((Boolean) v));
+        add("ownerId", "user.id", (dto, v) -> dto.setOwnerId((Long) v));
+        add("ownerProfileImage", "user.profileImage", (dto, v) -> dto.setOwnerProfileImage((String) v));
+        add("vaccinationStatus", "vaccinationStatus", (dto, v) -> dto.setVaccinationStatus((String) v));
+        add("colorMarkings", "colorMarkings", (dto, v) -> dto.setColorMarkings((String) v));
+        add("spayedNeutered", "spayedNeutered", (dto, v) -> dto.setSpayedNeutered(Boolean.TRUE.equals(v)));
+        add("medicalHistory", "medicalHistory", (dto, v) -> dto.setMedicalHistory((String) v));
+        add("behavior", "behavior", (dto, v) -> dto.setBehavior((String) v));
+        add("specialNeeds", "specialNeeds", (dto, v) -> dto.setSpecialNeeds((String) v));
+        add("adoptionFee", "adoptionFee", (dto, v) -> dto.setAdoptionFee((Double) v));
+        add("adoptionFeeFree", "adoptionFeeFree", (dto, v) -> dto.setAdoptionFeeFree(Boolean.TRUE.equals(v)));
+    }
+
+    private static void add(String name, String path, BiConsumer<PetDto, Object> setter) {
+        FIELDS.put(name, new Field(path, setter));
+    }
+
+    /**
+     * The requested properties, always including id, or null for the full
+     * representation. Throws IllegalArgumentException on an unknown name.
+     */
+    public static Set<String> parse(String fields, String view) {
+        Set<String> selected = new LinkedHashSet<>();
+        if (view != null && !view.isBlank()) {
+            if (!SUMMARY_VIEW.equals(view.trim())) {
+                throw new IllegalArgumentException("Unknown view: " + view);
+            }
+            selected.addAll(SUMMARY);
+        }
+        if (fields != null && !fields.isBlank()) {
+            Arrays.stream(fields.split(","))
+                    .map(String::trim)
+                    .filter(name -> !name.isEmpty())
+                    .forEach(name -> {
+                        if (!FIELDS.containsKey(name)) {
+                            throw new IllegalArgumentException("Unknown field: " + name);
+                        }
+                        selected.add(name);
+                    });
+        }
+        if (selected.isEmpty()) {
+            return null;
+        }
+        selected.add("id");
+        return selected;
+    }
+
+    public static Field field(String name) {
+        return FIELDS.get(name);
+    }
+
+    /**
+     * Wraps a response body so only the selected PetDto properties are written;
+     * a null selection writes everything.
+     */
+    public static MappingJacksonValue filter(Object body, Set<String> selected) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(filterProvider(selected));
+        return value;
+    }
+
+    public static FilterProvider filterProvider(Set<String> selected) {
+        SimpleBeanPropertyFilter filter = selected == null
+                ? SimpleBeanPropertyFilter.serializeAll()
+                : SimpleBeanPropertyFilter.filterOutAllExcept(selected);
+        return new SimpleFilterProvider().addFilter(FILTER, filter);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.PostApet.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class PetPageDto {
+    private List<PetDto> items;
+    private String nextCursor; // null when there are no more pets
+    private Long lastId;
+}
@@ -0,0 +1,39 @@
+package com.example.PostApet.dto;
+
+import lombok.Data;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Numeric range and sort parameters of the approved-pets search, bound from
+ * the query string (minAgeMonths=..&maxFee=..&sort=-ageMonths).
+ */
+@Data
+public class PetRangeFilter {
+    private Integer minAgeMonths;
+    private Integer maxAgeMonths;
+    private Double minFee;
+    private Double maxFee;
+    private String sort; // ageMonths, adoptionFee or newest; a leading '-' sorts descending
+
+    public boolean isEmpty() {
+        return minAgeMonths == null && maxAgeMonths == null && minFee == null && maxFee == null && sort == null;
+    }
+
+    /**
+     * The requested order with id as tie-breaker, or null when none was asked for.
+     * Throws IllegalArgumentException for an unknown sort key.
+     */
+    public Sort toSort() {
+        if (sort == null || sort.isBlank()) {
+            return null;
+        }
+        String key = sort.trim();
+        Sort.Direction direction = key.startsWith("-") ? Sort.Direction.DESC : Sort.Direction.ASC;
+        key = key.startsWith("-") ? key.substring(1) : key;
+        return switch (key) {
+            case "ageMonths", "adoptionFee" -> Sort.by(direction, key).and(Sort.by(direction, "id"));
+            case "newest" -> Sort.by(Sort.Direction.DESC, "id");
+            default -> throw new IllegalArgumentException("Unknown sort: " + sort);
+        };
+    }
+}
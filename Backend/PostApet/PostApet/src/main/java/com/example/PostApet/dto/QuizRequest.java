@@ -1,5 +1,7 @@
 package com.example.PostApet.dto;
 
+import java.util.Map;
+
 public class QuizRequest {
     private String petType;
     private String adoptionPurpose;
@@ -10,6 +12,10 @@ public class QuizRequest {
     private String preferredSize;
     private String preferredGender;
     private String adoptionFeePreference;
+    private Integer limit;
+    // Optional per-criterion weights ("size", "gender", "feeFree"); when present,
+    // partial matches are ranked by score instead of being dropped
+    private Map<String, Double> weights;
 
     // Getters and Setters
     public String getPetType() { return petType; }
@@ -40,4 +46,10 @@ public class QuizRequest {
     public void setAdoptionFeePreference(String adoptionFeePreference) {
         this.adoptionFeePreference = adoptionFeePreference;
     }
+
+    public Integer getLimit() { return limit; }
+    public void setLimit(Integer limit) { this.limit = limit; }
+
+    public Map<String, Double> getWeights() { return weights; }
+    public void setWeights(Map<String, Double> weights) { this.weights = weights; }
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.example.PostApet.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * An upload that is not stored: not a supported image (415), too large in bytes
+ * or pixels (413), or malformed (400).
+ */
+public class UploadRejectedException extends ResponseStatusException {
+    public UploadRejectedException(HttpStatus status, String reason) {
+        super(status, reason);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.PostApet.util;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Normalizes the free-text age of a listing to whole months. A bare number is
+ * months, as the listing form has always assumed; "2 years", "1.5 yrs",
+ * "3 weeks" and "1 year 6 months" are understood too.
+ */
+public class AgeUtil {
+
+    private static final Pattern PART = Pattern.compile("(\\d+(?:\\.\\d+)?)\\s*([a-z]*)");
+    private static final Pattern FILLER = Pattern.compile("[\\s,]+|and|old");
+
+    public static Integer toMonths(String age) {
+        if (age == null || age.isBlank()) {
+            return null;
+        }
+        String text = age.trim().toLowerCase();
+        Matcher matcher = PART.matcher(text);
+        double months = 0;
+        int end = 0;
+        boolean found = false;
+        while (matcher.find()) {
+            if (!FILLER.matcher(text.substring(end, matcher.start())).replaceAll("").isEmpty()) {
+                return null;
+            }
+            Double factor = monthsPerUnit(matcher.group(2));
+            if (factor == null) {
+                return null;
+            }
+            months += Double.parseDouble(matcher.group(1)) * factor;
+            end = matcher.end();
+            found = true;
+        }
+        if (!found || !FILLER.matcher(text.substring(end)).replaceAll("").isEmpty()) {
+            return null;
+        }
+        return months > Integer.MAX_VALUE ? null : (int) months;
+    }
+
+    private static Double monthsPerUnit(String unit) {
+        return switch (unit) {
+            case "", "m", "mo", "mos", "month", "months" -> 1.0;
+            case "y", "yr", "yrs", "year", "years" -> 12.0;
+            case "w", "wk", "wks", "week", "weeks" -> 12.0 / 52;
+            case "d", "day", "days" -> 12.0 / 365;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.PostApet.util;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+public class ConditionalRequests {
+
+    /**
+     * Sets ETag, Last-Modified and Cache-Control: no-cache (store, but always
+     * revalidate) and returns true when the client's copy is current, in which
+     * case the response is already a 304 and the handler should return null.
+     */
+    public static boolean notModified(ServletWebRequest webRequest, String etag, long lastModified) {
+        if (webRequest.getResponse() != null) {
+            webRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        }
+        return webRequest.checkNotModified(etag, lastModified);
+    }
+}
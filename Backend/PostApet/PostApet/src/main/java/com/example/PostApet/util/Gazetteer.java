@@ -0,0 +1,81 @@
+package com.example.PostApet.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Offline geocoding of location text against the bundled gazetteer.csv, so
+ * coordinates never need a network call. "Nugegoda, Colombo" resolves the
+ * whole text first and then each comma-separated part; "Kandy District" is
+ * read as "Kandy".
+ */
+public class Gazetteer {
+
+    public record Place(String name, double latitude, double longitude) {
+    }
+
+    private static final Map<String, Place> PLACES = load();
+
+    /**
+     * The place the text names, or null when it is not in the gazetteer.
+     */
+    public static Place lookup(String location) {
+        if (location == null || location.isBlank()) {
+            return null;
+        }
+        Place place = PLACES.get(normalize(location));
+        if (place != null) {
+            return place;
+        }
+        for (String part : location.split(",")) {
+            place = PLACES.get(normalize(part));
+            if (place != null) {
+                return place;
+            }
+        }
+        return null;
+    }
+
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 6371.0 * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    private static String normalize(String name) {
+        String key = name.trim().toLowerCase().replaceAll("\\s+", " ");
+        return key.endsWith(" district") ? key.substring(0, key.length() - " district".length()) : key;
+    }
+
+    private static Map<String, Place> load() {
+        Map<String, Place> places = new HashMap<>();
+        InputStream in = Gazetteer.class.getClassLoader().getResourceAsStream("gazetteer.csv");
+        if (in == null) {
+            throw new IllegalStateException("gazetteer.csv is missing from the classpath");
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] columns = line.split(",");
+                String name = columns[0].trim();
+                places.put(normalize(name), new Place(name,
+                        Double.parseDouble(columns[1].trim()), Double.parseDouble(columns[2].trim())));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read gazetteer.csv", e);
+        }
+        return places;
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.PostApet.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Type and size of an image read from its first bytes, without decoding it.
+ * Recognises JPEG, PNG, GIF and WebP by their magic bytes; anything else, or a
+ * header that is cut short or inconsistent, is an {@link IOException}.
+ * <p>
+ * Only as much of the stream is consumed as the header needs: a few dozen bytes,
+ * or for JPEG the metadata segments ahead of the frame header.
+ */
+public record ImageHeader(String extension, String contentType, int width, int height) {
+
+    public long pixels() {
+        return (long) width * height;
+    }
+
+    public static ImageHeader read(InputStream in) throws IOException {
+        byte[] magic = readFully(in, 12);
+        if (u8(magic, 0) == 0xFF && u8(magic, 1) == 0xD8 && u8(magic, 2) == 0xFF) {
+            return jpeg(new SequenceInputStream(new ByteArrayInputStream(magic, 2, magic.length - 2), in));
+        }
+        if (startsWith(magic, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            // IHDR must come first: length(4) "IHDR" width(4) height(4)
+            byte[] ihdr = readFully(in, 12);
+            if (!startsWith(ihdr, 'I', 'H', 'D', 'R')) {
+                throw new IOException("PNG without IHDR");
+            }
+            return checked(new ImageHeader(".png", "image/png", s32be(ihdr, 4), s32be(ihdr, 8)));
+        }
+        if (startsWith(magic, 'G', 'I', 'F', '8') && (magic[4] == '7' || magic[4] == '9') && magic[5] == 'a') {
+            return checked(new ImageHeader(".gif", "image/gif", u16le(magic, 6), u16le(magic, 8)));
+        }
+        if (startsWith(magic, 'R', 'I', 'F', 'F') && magic[8] == 'W' && magic[9] == 'E' && magic[10] == 'B' && magic[11] == 'P') {
+            return webp(in);
+        }
+        throw new IOException("not a JPEG, PNG, GIF or WebP image");
+    }
+
+    // in is positioned just after SOI
+    private static ImageHeader jpeg(InputStream in) throws IOException {
+        while (true) {
+            int prefix = in.read();
+            if (prefix < 0) {
+                throw new EOFException("truncated JPEG");
+            }
+            if (prefix != 0xFF) {
+                throw new IOException("malformed JPEG marker");
+            }
+            int marker;
+            do {
+                marker = in.read(); // fill bytes (0xFF) may pad between segments
+            } while (marker == 0xFF);
+            if (marker < 0) {
+                throw new EOFException("truncated JPEG");
+            }
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD7)) {
+                continue; // standalone marker, no segment
+            }
+            if (marker == 0xDA || marker == 0xD9) {
+                throw new IOException("JPEG without a frame header");
+            }
+            int length = u16be(readFully(in, 2), 0);
+            if (length < 2) {
+                throw new IOException("malformed JPEG segment");
+            }
+            if (isFrameHeader(marker)) {
+                byte[] frame = readFully(in, 5); // precision(1) height(2) width(2)
+                return checked(new ImageHeader(".jpg", "image/jpeg", u16be(frame, 3), u16be(frame, 1)));
+            }
+            in.skipNBytes(length - 2);
+        }
+    }
+
+    // SOF0-SOF15, except DHT (C4), JPG (C8) and DAC (CC)
+    private static boolean isFrameHeader(int marker) {
+        return marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC;
+    }
+
+    private static ImageHeader webp(InputStream in) throws IOException {
+        byte[] chunk = readFully(in, 18); // chunk fourcc(4) size(4) + first 10 payload bytes
+        String type = new String(chunk, 0, 4, StandardCharsets.US_ASCII);
+        return checked(switch (type) {
+            // canvas size minus one, 24-bit little endian
+            case "VP8X" -> new ImageHeader(".webp", "image/webp", u24le(chunk, 12) + 1, u24le(chunk, 15) + 1);
+            // signature 0x2F, then 14-bit width-1 and height-1
+            case "VP8L" -> {
+                if (u8(chunk, 8) != 0x2F) {
+                    throw new IOException("malformed WebP lossless header");
+                }
+                int bits = u8(chunk, 9) | u8(chunk, 10) << 8 | u8(chunk, 11) << 16 | u8(chunk, 12) << 24;
+                yield new ImageHeader(".webp", "image/webp", (bits & 0x3FFF) + 1, ((bits >> 14) & 0x3FFF) + 1);
+            }
+            // frame tag(3), start code 9D 01 2A, then 14-bit width and height
+            case "VP8 " -> {
+                if (u8(chunk, 11) != 0x9D || u8(chunk, 12) != 0x01 || u8(chunk, 13) != 0x2A) {
+                    throw new IOException("malformed WebP lossy header");
+                }
+                yield new ImageHeader(".webp", "image/webp", u16le(chunk, 14) & 0x3FFF, u16le(chunk, 16) & 0x3FFF);
+            }
+            default -> throw new IOException("unknown WebP chunk " + type);
+        });
+    }
+
+    private static ImageHeader checked(ImageHeader header) throws IOException {
+        if (header.width <= 0 || header.height <= 0) {
+            throw new IOException("image has no size");
+        }
+        return header;
+    }
+
+    private static byte[] readFully(InputStream in, int n) throws IOException {
+        byte[] bytes = in.readNBytes(n);
+        if (bytes.length < n) {
+            throw new EOFException("truncated image header");
+        }
+        return bytes;
+    }
+
+    private static boolean startsWith(byte[] bytes, int... prefix) {
+        for (int i = 0; i < prefix.length; i++) {
+            if (u8(bytes, i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int u8(byte[] b, int i) {
+        return b[i] & 0xff;
+    }
+
+    private static int u16be(byte[] b, int i) {
+        return u8(b, i) << 8 | u8(b, i + 1);
+    }
+
+    private static int u16le(byte[] b, int i) {
+        return u8(b, i) | u8(b, i + 1) << 8;
+    }
+
+    private static int u24le(byte[] b, int i) {
+        return u8(b, i) | u8(b, i + 1) << 8 | u8(b, i + 2) << 16;
+    }
+
+    private static int s32be(byte[] b, int i) {
+        return u16be(b, i) << 16 | u16be(b, i + 2);
+    }
+}
@@ -0,0 +1,15 @@
+-- Set by GeocodeBackfill on every row it has looked up, found or not, so a
+-- location the gazetteer does not know is tried once rather than on every start.
+-- Not mapped: entities geocode themselves whenever their location is written.
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+                WHERE table_schema = DATABASE() AND table_name = 'pet_model' AND column_name = 'geocode_attempted') = 0,
+               'ALTER TABLE pet_model ADD COLUMN geocode_attempted BIT NOT NULL DEFAULT 0', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+                WHERE table_schema = DATABASE() AND table_name = 'user' AND column_name = 'geocode_attempted') = 0,
+               'ALTER TABLE `user` ADD COLUMN geocode_attempted BIT NOT NULL DEFAULT 0', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
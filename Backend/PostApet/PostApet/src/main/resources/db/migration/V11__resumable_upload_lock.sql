@@ -0,0 +1,10 @@
+-- Write lock on a resumable upload, shared by every instance (ResumableUploadService):
+-- locked_by is the holder's token, and the lock lapses at locked_until if the holder
+-- dies, so an upload is never stuck behind a crashed instance.
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+                WHERE table_schema = DATABASE() AND table_name = 'resumable_uploads' AND column_name = 'locked_by') = 0,
+               'ALTER TABLE resumable_uploads ADD COLUMN locked_by CHAR(36) NULL, ADD COLUMN locked_until DATETIME(6) NULL',
+               'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
@@ -0,0 +1,9 @@
+-- Set by PetAgeBackfill on every row it has parsed, readable or not, so an age
+-- AgeUtil cannot read is tried once rather than on every start.
+-- Not mapped: entities normalise their age whenever it is written.
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+                WHERE table_schema = DATABASE() AND table_name = 'pet_model' AND column_name = 'age_parse_attempted') = 0,
+               'ALTER TABLE pet_model ADD COLUMN age_parse_attempted BIT NOT NULL DEFAULT 0', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
@@ -0,0 +1,123 @@
+-- Schema as ddl-auto=update produced it before versioned migrations: every id
+-- AUTO_INCREMENT, none of the columns added since. An existing database is at
+-- least at this version, so IF NOT EXISTS makes the script a no-op there; what
+-- came later is added by the migrations after V2, which check before they alter.
+
+CREATE TABLE IF NOT EXISTS `user` (
+    id            BIGINT       NOT NULL AUTO_INCREMENT,
+    email         VARCHAR(255),
+    password      VARCHAR(255),
+    name          VARCHAR(255),
+    user_role     TINYINT,
+    nic           VARCHAR(255),
+    phone         VARCHAR(255),
+    location      VARCHAR(255),
+    profile_image VARCHAR(500),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS species (
+    id    BIGINT NOT NULL AUTO_INCREMENT,
+    name  VARCHAR(255),
+    photo VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_species_name UNIQUE (name)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS doctor (
+    id             BIGINT NOT NULL AUTO_INCREMENT,
+    name           VARCHAR(255),
+    contact_number VARCHAR(255),
+    email          VARCHAR(255),
+    qualifications VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS employee (
+    id           BIGINT NOT NULL AUTO_INCREMENT,
+    first_name   VARCHAR(255),
+    last_name    VARCHAR(255),
+    email        VARCHAR(255),
+    phone_number VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS contact_messages (
+    id         BIGINT NOT NULL AUTO_INCREMENT,
+    name       VARCHAR(255),
+    email      VARCHAR(255),
+    subject    VARCHAR(255),
+    message    VARCHAR(255),
+    created_at DATETIME(6),
+    responded  BIT    NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS admin_activity (
+    id         BIGINT NOT NULL AUTO_INCREMENT,
+    message    VARCHAR(255),
+    created_at DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS pet_model (
+    id                   BIGINT NOT NULL AUTO_INCREMENT,
+    pet_name             VARCHAR(255),
+    specie               VARCHAR(255),
+    breed                VARCHAR(255),
+    location             VARCHAR(255),
+    age                  VARCHAR(255),
+    gender               VARCHAR(255),
+    reason               VARCHAR(255),
+    if_temp              VARCHAR(255),
+    justify              VARCHAR(255),
+    contact_email        VARCHAR(255),
+    contact_phone_number VARCHAR(255),
+    owner_name           VARCHAR(255),
+    nic                  VARCHAR(255),
+    photo                VARCHAR(255),
+    reg_status           VARCHAR(255),
+    physical_status      VARCHAR(255),
+    doc_name             VARCHAR(255),
+    doc_status           VARCHAR(255),
+    total_cost           FLOAT(53),
+    discount             FLOAT(53),
+    net_cost             FLOAT(53),
+    is_available         BIT,
+    user_id              BIGINT,
+    vaccination_status   VARCHAR(255),
+    color_markings       VARCHAR(255),
+    size                 VARCHAR(255),
+    spayed_neutered      BIT    NOT NULL,
+    medical_history      VARCHAR(255),
+    behavior             VARCHAR(255),
+    special_needs        VARCHAR(255),
+    adoption_fee         FLOAT(53),
+    adoption_fee_free    BIT    NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_pet_model_user FOREIGN KEY (user_id) REFERENCES `user` (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS messages (
+    id          BIGINT      NOT NULL AUTO_INCREMENT,
+    sender_id   BIGINT      NOT NULL,
+    receiver_id BIGINT      NOT NULL,
+    pet_id      BIGINT      NOT NULL,
+    content     TEXT        NOT NULL,
+    timestamp   DATETIME(6) NOT NULL,
+    is_read     BIT         NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_messages_sender FOREIGN KEY (sender_id) REFERENCES `user` (id),
+    CONSTRAINT fk_messages_receiver FOREIGN KEY (receiver_id) REFERENCES `user` (id),
+    CONSTRAINT fk_messages_pet FOREIGN KEY (pet_id) REFERENCES pet_model (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS favorites (
+    id         BIGINT      NOT NULL AUTO_INCREMENT,
+    user_id    BIGINT      NOT NULL,
+    pet_id     BIGINT      NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_favorites_user FOREIGN KEY (user_id) REFERENCES `user` (id),
+    CONSTRAINT fk_favorites_pet FOREIGN KEY (pet_id) REFERENCES pet_model (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,95 @@
+-- Indexes for the repository finders and Specifications that run on every page.
+-- InnoDB appends the primary key to each secondary index, so (reg_status) is
+-- also (reg_status, id) and serves the newest-first and keyset orders.
+--
+-- MySQL has no CREATE INDEX IF NOT EXISTS, so each index is created by a statement
+-- prepared only when information_schema does not list it yet; a database where
+-- some were added by hand, or a rerun after a failure part way, gets the rest.
+
+-- PetRepository: findTop8ByRegStatusOrderByIdDesc, keyset pages and export
+-- (reg_status = ? AND id > ? ORDER BY id), catalog replay on startup
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+                WHERE table_schema = DATABASE() AND table_name = 'pet_model' AND index_name = 'idx_pet_status') = 0,
+               'CREATE INDEX idx_pet_status ON pet_model (reg_status)', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+-- findBySpecieAndRegStatus, approved search filtered by species
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+                WHERE table_schema = DATABASE() AND table_name = 'pet_model' AND index_name = 'idx_pet_status_specie') = 0,
+               'CREATE INDEX idx_pet_status_specie ON pet_model (reg_status, specie)', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+-- findByRegStatusAndIsAvailableOrderByIdDesc (recent-approved feed)
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+                WHERE table_schema = DATABASE() AND table_name = 'pet_model' AND index_name = 'idx_pet_status_available') = 0,
+               'CREATE INDEX idx_pet_status_available ON pet_model (reg_status, is_available)', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+-- findByUser, /my-pets; replaces the index MySQL created for the foreign key
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+                WHERE table_schema = DATABASE() AND table_name = 'pet_model' AND index_name = 'idx_pet_user') = 0,
+               'CREATE INDEX idx_pet_user ON pet_model (user_id)', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+-- MessageRepository.countByReceiverIdAndIsReadFalse; its receiver_id prefix also
+-- serves the receiver half of the sender-or-receiver inbox queries
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+                WHERE table_schema = DATABASE() AND table_name = 'messages' AND index_name = 'idx_messages_receiver_read') = 0,
+               'CREATE INDEX idx_messages_receiver_read ON messages (receiver_id, is_read)', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+-- Sender half of the inbox queries (index merge with the one above)
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+                WHERE table_schema = DATABASE() AND table_name = 'messages' AND index_name = 'idx_messages_sender') = 0,
+               'CREATE INDEX idx_messages_sender ON messages (sender_id)', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+-- findByPetIdAndSenderIdAndReceiverIdOrderByTimestampAsc: both directions of a
+-- conversation are equality lookups on (pet_id, sender_id, receiver_id)
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+                WHERE table_schema = DATABASE() AND table_name = 'messages' AND index_name = 'idx_messages_conversation') = 0,
+               'CREATE INDEX idx_messages_conversation ON messages (pet_id, sender_id, receiver_id, timestamp)', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+-- A user favorites a pet at most once. Duplicates from before the constraint keep
+-- their oldest row.
+DELETE f1 FROM favorites f1
+    JOIN favorites f2 ON f1.user_id = f2.user_id AND f1.pet_id = f2.pet_id AND f1.id > f2.id;
+-- existsByUserIdAndPetId, findByUserIdAndPetId, deleteByUserIdAndPetId, findByUserId
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+                WHERE table_schema = DATABASE() AND table_name = 'favorites' AND index_name = 'uk_favorites_user_pet') = 0,
+               'CREATE UNIQUE INDEX uk_favorites_user_pet ON favorites (user_id, pet_id)', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+-- findFavoritePetsByUserId / findFavoritePetIdsByUserId order by created_at
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+                WHERE table_schema = DATABASE() AND table_name = 'favorites' AND index_name = 'idx_favorites_user_created') = 0,
+               'CREATE INDEX idx_favorites_user_created ON favorites (user_id, created_at)', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+-- Foreign key lookups when a pet is deleted
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+                WHERE table_schema = DATABASE() AND table_name = 'favorites' AND index_name = 'idx_favorites_pet') = 0,
+               'CREATE INDEX idx_favorites_pet ON favorites (pet_id)', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+-- UserRepository.findFirstByEmail on every authenticated request
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+                WHERE table_schema = DATABASE() AND table_name = 'user' AND index_name = 'idx_user_email') = 0,
+               'CREATE INDEX idx_user_email ON `user` (email)', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
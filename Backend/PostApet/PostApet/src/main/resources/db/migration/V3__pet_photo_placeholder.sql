@@ -0,0 +1,2 @@
+-- BlurHash of the pet photo, filled in by the image pipeline after upload
+ALTER TABLE pet_model ADD COLUMN photo_placeholder VARCHAR(64);
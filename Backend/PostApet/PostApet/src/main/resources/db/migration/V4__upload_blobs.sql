@@ -0,0 +1,10 @@
+-- Content-addressed uploads (FileStorageService): one row per distinct file,
+-- keyed by its SHA-256, with the number of references to it
+CREATE TABLE upload_blobs (
+    hash       CHAR(64)     NOT NULL,
+    url        VARCHAR(255) NOT NULL,
+    size       BIGINT       NOT NULL,
+    ref_count  INT          NOT NULL,
+    created_at DATETIME(6)  NOT NULL,
+    PRIMARY KEY (hash)
+) ENGINE = InnoDB;
@@ -0,0 +1,11 @@
+-- Resumable uploads (ResumableUploadService). The bytes received so far are the
+-- part file under uploads/.tmp/resumable; url is set once the upload is finished
+CREATE TABLE resumable_uploads (
+    id            CHAR(36)     NOT NULL,
+    user_id       BIGINT       NOT NULL,
+    upload_length BIGINT       NOT NULL,
+    url           VARCHAR(255) NULL,
+    expires_at    DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id),
+    KEY idx_resumable_uploads_expires (expires_at)
+) ENGINE = InnoDB;
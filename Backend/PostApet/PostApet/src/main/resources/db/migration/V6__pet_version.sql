@@ -0,0 +1,9 @@
+-- Optimistic locking version of a pet, also its ETag generation (PetModel.version)
+-- Guarded like V2: a database that ddl-auto=update kept in step with the
+-- entities already has the column, and the script leaves it alone.
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+                WHERE table_schema = DATABASE() AND table_name = 'pet_model' AND column_name = 'version') = 0,
+               'ALTER TABLE pet_model ADD COLUMN version BIGINT NOT NULL DEFAULT 0', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
@@ -0,0 +1,24 @@
+-- Age normalised to months for the age range filter; PetAgeBackfill fills it in
+-- for rows written before it existed
+-- Guarded like V2: a database that ddl-auto=update kept in step with the
+-- entities already has the column, and the script leaves it alone.
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+                WHERE table_schema = DATABASE() AND table_name = 'pet_model' AND column_name = 'age_months') = 0,
+               'ALTER TABLE pet_model ADD COLUMN age_months INTEGER', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+-- Range filters on the approved catalog (PetService.rangeSpec)
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+                WHERE table_schema = DATABASE() AND table_name = 'pet_model' AND index_name = 'idx_pet_status_age_months') = 0,
+               'CREATE INDEX idx_pet_status_age_months ON pet_model (reg_status, age_months)', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.statistics
+                WHERE table_schema = DATABASE() AND table_name = 'pet_model' AND index_name = 'idx_pet_status_adoption_fee') = 0,
+               'CREATE INDEX idx_pet_status_adoption_fee ON pet_model (reg_status, adoption_fee)', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
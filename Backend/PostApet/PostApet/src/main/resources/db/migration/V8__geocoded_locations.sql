@@ -0,0 +1,28 @@
+-- Coordinates of the location text, for the pets-near-me search; GeocodeBackfill
+-- fills them in for rows written before they existed
+-- Guarded like V2: a database that ddl-auto=update kept in step with the
+-- entities already has the column, and the script leaves it alone.
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+                WHERE table_schema = DATABASE() AND table_name = 'pet_model' AND column_name = 'latitude') = 0,
+               'ALTER TABLE pet_model ADD COLUMN latitude FLOAT(53)', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+                WHERE table_schema = DATABASE() AND table_name = 'pet_model' AND column_name = 'longitude') = 0,
+               'ALTER TABLE pet_model ADD COLUMN longitude FLOAT(53)', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+                WHERE table_schema = DATABASE() AND table_name = 'user' AND column_name = 'latitude') = 0,
+               'ALTER TABLE `user` ADD COLUMN latitude FLOAT(53)', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.columns
+                WHERE table_schema = DATABASE() AND table_name = 'user' AND column_name = 'longitude') = 0,
+               'ALTER TABLE `user` ADD COLUMN longitude FLOAT(53)', 'DO 0');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
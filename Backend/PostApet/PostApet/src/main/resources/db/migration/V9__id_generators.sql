@@ -0,0 +1,8 @@
+-- Pooled ids for pet_model, messages, favorites and admin_activity (TABLE
+-- generation); IdGeneratorSeeder raises each row past the ids already in use.
+-- The id columns keep AUTO_INCREMENT, which takes the explicit ids as given.
+CREATE TABLE IF NOT EXISTS id_generators (
+    sequence_name VARCHAR(255) NOT NULL,
+    next_val      BIGINT,
+    PRIMARY KEY (sequence_name)
+) ENGINE = InnoDB;
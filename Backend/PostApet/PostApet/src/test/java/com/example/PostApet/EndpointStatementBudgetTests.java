@@ -0,0 +1,132 @@
+package com.example.PostApet;
+
+import com.example.PostApet.Enum.UserRole;
+import com.example.PostApet.Model.Favorite;
+import com.example.PostApet.Model.PetModel;
+import com.example.PostApet.Model.User;
+import com.example.PostApet.Repository.FavoriteRepository;
+import com.example.PostApet.Repository.PetRepository;
+import com.example.PostApet.Repository.UserRepository;
+import com.example.PostApet.support.SqlStatementBudget;
+import com.example.PostApet.util.JwtUtil;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Statement budgets for the list endpoints served from the database. Each one
+ * lists several pets of one owner, so loading the owner per row would repeat a
+ * statement and fail as an N+1. Authenticated requests spend one statement on the
+ * JWT filter's user lookup.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EndpointStatementBudgetTests {
+
+    private static final int PETS = 5;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PetRepository petRepository;
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private User owner;
+    private String bearer;
+
+    // Seeded before the budgets start counting
+    @BeforeAll
+    void seed() {
+        owner = new User();
+        owner.setEmail("budget-" + UUID.randomUUID() + "@example.com");
+        owner.setPassword("unused");
+        owner.setName("Budget Owner");
+        owner.setUserRole(UserRole.USER);
+        owner = userRepository.save(owner);
+        bearer = "Bearer " + jwtUtil.generateToken(owner);
+
+        List<PetModel> pets = new ArrayList<>();
+        for (int i = 0; i < PETS; i++) {
+            PetModel pet = new PetModel();
+            pet.setPetName("Budget " + i);
+            pet.setSpecie("Dog");
+            pet.setRegStatus("Approved");
+            pet.setAvailable(true);
+            pet.setUser(owner);
+            pets.add(pet);
+        }
+        for (PetModel pet : petRepository.saveAll(pets)) {
+            Favorite favorite = new Favorite();
+            favorite.setUser(owner);
+            favorite.setPet(pet);
+            favorite.setCreatedAt(LocalDateTime.now());
+            favoriteRepository.save(favorite);
+        }
+    }
+
+    @AfterAll
+    void cleanUp() {
+        favoriteRepository.deleteAll(favoriteRepository.findByUserId(owner.getId()));
+        petRepository.deleteAll(petRepository.findByUser(owner));
+        userRepository.delete(owner);
+    }
+
+    @Test
+    @SqlStatementBudget(2)
+    void favoritesAreOneStatement() throws Exception {
+        mockMvc.perform(get("/api/v1/favorites").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @SqlStatementBudget(3)
+    void favoritesSummaryViewIsIdsThenColumns() throws Exception {
+        mockMvc.perform(get("/api/v1/favorites").param("view", "summary").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @SqlStatementBudget(2)
+    void myPetsAreOneStatement() throws Exception {
+        mockMvc.perform(get("/api/v1/pets/my-pets").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @SqlStatementBudget(1)
+    void approvedIsOneStatement() throws Exception {
+        mockMvc.perform(get("/api/v1/pets/approved").param("specie", "Dog"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @SqlStatementBudget(1)
+    void approvedPageIsOneStatement() throws Exception {
+        mockMvc.perform(get("/api/v1/pets/approved/page").param("specie", "Dog").param("limit", "20"))
+                .andExpect(status().isOk());
+    }
+}
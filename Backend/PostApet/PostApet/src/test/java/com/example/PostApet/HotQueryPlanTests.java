@@ -0,0 +1,170 @@
+package com.example.PostApet;
+
+import com.example.PostApet.Model.User;
+import com.example.PostApet.Repository.FavoriteRepository;
+import com.example.PostApet.Repository.MessageRepository;
+import com.example.PostApet.Repository.PetRepository;
+import com.example.PostApet.Repository.UserRepository;
+import com.example.PostApet.configs.SqlStatementStats;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the hot repository finders, captures the SQL Hibernate generated for them
+ * (through the {@link SqlStatementStats} statement inspector) and EXPLAINs it
+ * against the migrated schema: the finder's table must be read through the index
+ * designed for it, never by a full scan (type ALL).
+ * <p>
+ * The captured SQL has ? placeholders; the test binds the finder's own arguments
+ * to the leading ones and 1 to any left over (LIMIT).
+ */
+@SpringBootTest
+class HotQueryPlanTests {
+
+    private static final Pattern FROM_ALIAS = Pattern.compile("\\bfrom\\s+`?(\\w+)`?\\s+(\\w+)", Pattern.CASE_INSENSITIVE);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PetRepository petRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private FavoriteRepository favoriteRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // Cached query results would answer without any SQL to capture
+    @BeforeEach
+    void evictCaches() {
+        entityManagerFactory.getCache().evictAll();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+    }
+
+    @Test
+    void recentApprovedUsesStatusAvailableIndex() {
+        String sql = capture(() -> petRepository.findByRegStatusAndIsAvailableOrderByIdDesc("Approved", true, PageRequest.of(0, 8)));
+        assertUsesIndex(sql, "pet_model", "idx_pet_status_available", "Approved", true);
+    }
+
+    @Test
+    void approvedKeysetPageUsesStatusIndex() {
+        String sql = capture(() -> petRepository.findByRegStatusAndIdGreaterThanOrderByIdAsc("Approved", 0L, PageRequest.of(0, 50)));
+        assertUsesIndex(sql, "pet_model", "idx_pet_status", "Approved", 0);
+    }
+
+    @Test
+    void speciesFilterUsesStatusSpecieIndex() {
+        String sql = capture(() -> petRepository.findBySpecieAndRegStatus("Dog", "Approved"));
+        assertUsesIndex(sql, "pet_model", "idx_pet_status_specie", "Dog", "Approved");
+    }
+
+    @Test
+    void petsByOwnerUseUserIndex() {
+        User owner = new User();
+        owner.setId(1L);
+        String sql = capture(() -> petRepository.findByUser(owner));
+        assertUsesIndex(sql, "pet_model", "idx_pet_user", 1);
+    }
+
+    @Test
+    void unreadCountUsesReceiverReadIndex() {
+        String sql = capture(() -> messageRepository.countByReceiverIdAndIsReadFalse(1L));
+        assertUsesIndex(sql, "messages", "idx_messages_receiver_read", 1);
+    }
+
+    @Test
+    void conversationUsesConversationIndex() {
+        String sql = capture(() -> messageRepository.findByPetIdAndSenderIdAndReceiverIdOrderByTimestampAsc(1L, 1L, 2L));
+        assertUsesIndex(sql, "messages", "idx_messages_conversation", 1, 1, 2, 2, 1);
+    }
+
+    @Test
+    void inboxMergesSenderAndReceiverIndexes() {
+        String sql = capture(() -> messageRepository.findBySenderIdOrReceiverIdOrderByTimestampDesc(1L, 1L));
+        Map<String, Object> row = planRow(sql, "messages", 1, 1);
+        assertEquals("index_merge", row.get("type"), "Expected an index merge for: " + sql + "\nPlan: " + row);
+        List<String> keys = Arrays.asList(((String) row.get("key")).split(","));
+        assertTrue(keys.contains("idx_messages_sender") && keys.contains("idx_messages_receiver_read"),
+                "Expected idx_messages_sender and idx_messages_receiver_read for: " + sql + "\nPlan: " + row);
+    }
+
+    @Test
+    void favoriteLookupUsesUniqueIndex() {
+        String sql = capture(() -> favoriteRepository.existsByUserIdAndPetId(1L, 1L));
+        assertUsesIndex(sql, "favorites", "uk_favorites_user_pet", 1, 1);
+    }
+
+    @Test
+    void favoritesListUsesUserCreatedIndex() {
+        String sql = capture(() -> favoriteRepository.findFavoritePetIdsByUserId(1L));
+        assertUsesIndex(sql, "favorites", "idx_favorites_user_created", 1);
+    }
+
+    @Test
+    void userByEmailUsesEmailIndex() {
+        String sql = capture(() -> userRepository.findFirstByEmail("a@example.com"));
+        assertUsesIndex(sql, "user", "idx_user_email", "a@example.com");
+    }
+
+    // The one statement the finder issued
+    private static String capture(Runnable finder) {
+        SqlStatementStats.start();
+        List<String> sql;
+        try {
+            finder.run();
+        } finally {
+            sql = SqlStatementStats.stop().getSql();
+        }
+        assertEquals(1, sql.size(), "Expected one statement, got " + sql);
+        return sql.get(0);
+    }
+
+    private void assertUsesIndex(String sql, String table, String index, Object... args) {
+        Map<String, Object> row = planRow(sql, table, args);
+        assertNotEquals("ALL", row.get("type"), "Full scan of " + table + " for: " + sql + "\nPlan: " + row);
+        assertEquals(index, row.get("key"), "Expected " + index + " for: " + sql + "\nPlan: " + row);
+    }
+
+    // The plan row of the statement's FROM table, which EXPLAIN names by its alias
+    private Map<String, Object> planRow(String sql, String table, Object... args) {
+        Matcher from = FROM_ALIAS.matcher(sql);
+        assertTrue(from.find() && from.group(1).equals(table), "Not a query on " + table + ": " + sql);
+        String alias = from.group(2);
+
+        List<Object> bound = new ArrayList<>(Arrays.asList(args));
+        long placeholders = sql.chars().filter(c -> c == '?').count();
+        while (bound.size() < placeholders) {
+            bound.add(1);
+        }
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, bound.toArray());
+        List<Map<String, Object>> rows = plan.stream().filter(row -> alias.equals(row.get("table"))).toList();
+        assertFalse(rows.isEmpty(), "No plan row for " + table + ": " + plan);
+        return rows.get(0);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.PostApet.Service;
+
+import com.example.PostApet.Model.PetModel;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+/**
+ * {@link PricingEngine} built from the shipped application.properties must quote
+ * what the hard-coded ladder it replaced did: 20000 up to 1 month, 60000 up to 6,
+ * 100000 up to 12, otherwise (or with no known age) 10000, less the discount
+ * percentage. Checked through both the single-pet and the batch path.
+ */
+class PricingEngineTests {
+
+    private static final Integer[] AGES = {null, 0, 1, 2, 5, 6, 7, 11, 12, 13, 24, 180};
+    private static final Double[] DISCOUNTS = {null, 0.0, 12.5, 50.0, 100.0};
+    private static final String[] SPECIES = {null, "Dog", "cat"};
+
+    static Stream<Arguments> listings() {
+        List<Arguments> listings = new ArrayList<>();
+        for (Integer age : AGES) {
+            for (Double discount : DISCOUNTS) {
+                for (String specie : SPECIES) {
+                    listings.add(arguments(age, discount, specie));
+                }
+            }
+        }
+        return listings.stream();
+    }
+
+    @ParameterizedTest(name = "age {0} months, discount {1}%, {2}")
+    @MethodSource("listings")
+    void quotesTheOldLadder(Integer ageMonths, Double discount, String specie) throws IOException {
+        PricingEngine engine = shippedEngine();
+        double total = oldTotalCost(ageMonths);
+        double net = oldNetCost(total, discount);
+
+        PetModel pet = new PetModel();
+        pet.setAge(ageMonths != null ? ageMonths + " months" : null);
+        pet.setDiscount(discount);
+        pet.setSpecie(specie);
+        engine.price(pet);
+        assertEquals(total, pet.getTotalCost());
+        assertEquals(net, pet.getNetCost());
+
+        PricingEngine.Batch batch = engine.newBatch(1);
+        batch.add(1L, ageMonths, specie, discount, false);
+        engine.price(batch);
+        assertEquals(total, batch.totalCost(0));
+        assertEquals(net, batch.netCost(0));
+    }
+
+    // The ladder as PetServiceImpl.calculateCosts had it
+    private static double oldTotalCost(Integer ageInMonths) {
+        double totalCost = 10000;
+        if (ageInMonths != null) {
+            if (ageInMonths <= 1) totalCost = 20000;
+            else if (ageInMonths <= 6) totalCost = 60000;
+            else if (ageInMonths <= 12) totalCost = 100000;
+        }
+        return totalCost;
+    }
+
+    private static double oldNetCost(double totalCost, Double discount) {
+        double discountValue = discount != null ? discount : 0;
+        return totalCost - (totalCost * discountValue / 100);
+    }
+
+    private static PricingEngine shippedEngine() throws IOException {
+        Properties properties = PropertiesLoaderUtils.loadProperties(new ClassPathResource("application.properties"));
+        return new PricingEngine(list(properties, "pricing.age-tiers"),
+                Double.parseDouble(properties.getProperty("pricing.base-cost")),
+                list(properties, "pricing.species-factors"),
+                Double.parseDouble(properties.getProperty("pricing.max-discount-percent")));
+    }
+
+    private static List<String> list(Properties properties, String name) {
+        return Arrays.stream(properties.getProperty(name, "").split(","))
+                .filter(entry -> !entry.isBlank())
+                .toList();
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.PostApet.configs;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+/**
+ * The conditional and range request rules of {@link UploadsFilter}, one table per
+ * helper. Validators are those of a 1000-byte file last modified at a whole second,
+ * as the filter rounds them.
+ */
+class UploadsFilterTests {
+
+    private static final long LENGTH = 1000;
+    private static final long LAST_MODIFIED = 1_700_000_000_000L;
+    private static final String ETAG = "\"3e8-18bcfe56800\"";
+
+    static Stream<Arguments> ranges() {
+        return Stream.of(
+                arguments("bytes=0-99", LENGTH, "0-99"),
+                arguments("bytes=500-", LENGTH, "500-999"),
+                arguments("bytes=900-2000", LENGTH, "900-999"),
+                arguments("bytes=999-999", LENGTH, "999-999"),
+                arguments("bytes=-100", LENGTH, "900-999"),
+                arguments("bytes=-2000", LENGTH, "0-999"),
+                arguments("bytes= 10 - 20 ", LENGTH, "10-20"),
+                arguments("bytes=0-0", 1L, "0-0"),
+                // unsatisfiable: 416
+                arguments("bytes=1000-", LENGTH, "unsatisfiable"),
+                arguments("bytes=5000-6000", LENGTH, "unsatisfiable"),
+                arguments("bytes=-0", LENGTH, "unsatisfiable"),
+                arguments("bytes=0-", 0L, "unsatisfiable"),
+                arguments("bytes=-5", 0L, "unsatisfiable"),
+                // ignored: the whole file
+                arguments("bytes=20-10", LENGTH, "ignored"),
+                arguments("bytes=0-9,20-29", LENGTH, "ignored"),
+                arguments("items=0-9", LENGTH, "ignored"),
+                arguments("bytes=5", LENGTH, "ignored"),
+                arguments("bytes=-", LENGTH, "ignored"),
+                arguments("bytes=abc-", LENGTH, "ignored"),
+                arguments("bytes=0-99999999999999999999", LENGTH, "ignored"));
+    }
+
+    static Stream<Arguments> conditionalGets() {
+        return Stream.of(
+                arguments("no validators", false, new String[0]),
+                arguments("same ETag", true, new String[]{HttpHeaders.IF_NONE_MATCH, ETAG}),
+                arguments("weak form of the ETag", true, new String[]{HttpHeaders.IF_NONE_MATCH, "W/" + ETAG}),
+                arguments("ETag in a list", true, new String[]{HttpHeaders.IF_NONE_MATCH, "\"other\", " + ETAG}),
+                arguments("any ETag", true, new String[]{HttpHeaders.IF_NONE_MATCH, "*"}),
+                arguments("other ETag", false, new String[]{HttpHeaders.IF_NONE_MATCH, "\"other\""}),
+                arguments("other ETag wins over a later date", false, new String[]{
+                        HttpHeaders.IF_NONE_MATCH, "\"other\"", HttpHeaders.IF_MODIFIED_SINCE, date(LAST_MODIFIED + 60_000)}),
+                arguments("same date", true, new String[]{HttpHeaders.IF_MODIFIED_SINCE, date(LAST_MODIFIED)}),
+                arguments("later date", true, new String[]{HttpHeaders.IF_MODIFIED_SINCE, date(LAST_MODIFIED + 1000)}),
+                arguments("earlier date", false, new String[]{HttpHeaders.IF_MODIFIED_SINCE, date(LAST_MODIFIED - 1000)}),
+                arguments("malformed date", false, new String[]{HttpHeaders.IF_MODIFIED_SINCE, "yesterday"}));
+    }
+
+    static Stream<Arguments> ifRanges() {
+        return Stream.of(
+                arguments("no If-Range", true, null),
+                arguments("same ETag", true, ETAG),
+                arguments("other ETag", false, "\"other\""),
+                arguments("weak ETag", false, "W/" + ETAG),
+                arguments("same date", true, date(LAST_MODIFIED)),
+                arguments("later date", false, date(LAST_MODIFIED + 1000)),
+                arguments("earlier date", false, date(LAST_MODIFIED - 1000)),
+                arguments("malformed date", false, "yesterday"));
+    }
+
+    @ParameterizedTest(name = "{0} of {1} bytes -> {2}")
+    @MethodSource("ranges")
+    void parsesRange(String header, long length, String expected) {
+        long[] bounds = UploadsFilter.parseRange(header, length);
+        String actual = bounds == null ? "ignored" : bounds.length == 0 ? "unsatisfiable" : bounds[0] + "-" + bounds[1];
+        assertEquals(expected, actual);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("conditionalGets")
+    void answersNotModified(String name, boolean expected, String[] headers) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/a.jpg");
+        for (int i = 0; i < headers.length; i += 2) {
+            request.addHeader(headers[i], headers[i + 1]);
+        }
+        assertEquals(expected, UploadsFilter.notModified(request, ETAG, LAST_MODIFIED));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("ifRanges")
+    void honoursIfRange(String name, boolean expected, String ifRange) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/a.jpg");
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-99");
+        if (ifRange != null) {
+            request.addHeader(HttpHeaders.IF_RANGE, ifRange);
+        }
+        assertEquals(expected, UploadsFilter.rangeStillValid(request, ETAG, LAST_MODIFIED));
+    }
+
+    private static String date(long millis) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(millis).atZone(ZoneOffset.UTC));
+    }
+}
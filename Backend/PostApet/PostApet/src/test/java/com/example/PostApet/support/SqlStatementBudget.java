@@ -0,0 +1,29 @@
+package com.example.PostApet.support;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Fails the test if it issues more than {@link #value()} SQL statements, or, unless
+ * allowed, repeats the same statement often enough to look like an N+1.
+ * <pre>
+ * &#64;Test
+ * &#64;SqlStatementBudget(2)
+ * void favoritesListIsTwoStatements() throws Exception {
+ *     mockMvc.perform(get("/api/v1/favorites")).andExpect(status().isOk());
+ * }
+ * </pre>
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(SqlStatementBudgetExtension.class)
+public @interface SqlStatementBudget {
+
+    int value();
+
+    boolean allowNPlusOne() default false;
+}
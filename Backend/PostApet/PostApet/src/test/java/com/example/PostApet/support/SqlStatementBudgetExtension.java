@@ -0,0 +1,32 @@
+package com.example.PostApet.support;
+
+import com.example.PostApet.configs.SqlStatementStats;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SqlStatementBudgetExtension implements BeforeEachCallback, AfterEachCallback {
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        SqlStatementStats.start();
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        SqlStatementStats.Stats stats = SqlStatementStats.stop();
+        SqlStatementBudget budget = AnnotationSupport.findAnnotation(context.getRequiredTestMethod(), SqlStatementBudget.class)
+                .or(() -> AnnotationSupport.findAnnotation(context.getRequiredTestClass(), SqlStatementBudget.class))
+                .orElseThrow();
+
+        assertTrue(stats.getStatements() <= budget.value(),
+                "Expected at most " + budget.value() + " SQL statements but got " + stats.getStatements());
+        if (!budget.allowNPlusOne()) {
+            assertFalse(stats.hasNPlusOne(), "Repeated statements (N+1): " + stats.getRepeatedStatements());
+        }
+    }
+}
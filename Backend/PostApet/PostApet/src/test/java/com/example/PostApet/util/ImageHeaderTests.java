@@ -0,0 +1,209 @@
+package com.example.PostApet.util;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+/**
+ * {@link ImageHeader} against hand-built headers for each format: well-formed
+ * ones, ones cut short at every stage (an {@link EOFException}), oversized
+ * dimensions (read as declared, for FileStorageService to judge) and malformed
+ * ones (a plain {@link IOException}).
+ */
+class ImageHeaderTests {
+
+    static Stream<Arguments> wellFormed() {
+        return Stream.of(
+                arguments("PNG", png(640, 480), ".png", 640, 480),
+                arguments("GIF87a", gif("GIF87a", 320, 200), ".gif", 320, 200),
+                arguments("GIF89a", gif("GIF89a", 1, 1), ".gif", 1, 1),
+                arguments("JPEG baseline", jpeg(app0(), sof(0xC0, 480, 640)), ".jpg", 640, 480),
+                arguments("JPEG progressive", jpeg(app0(), sof(0xC2, 600, 800)), ".jpg", 800, 600),
+                arguments("JPEG fill bytes and RST", jpeg(app0(), bytes(0xFF, 0xFF, 0xD0), sof(0xC0, 10, 20)), ".jpg", 20, 10),
+                arguments("JPEG DHT before frame", jpeg(segment(0xC4, 20), sof(0xC1, 30, 40)), ".jpg", 40, 30),
+                arguments("JPEG 64K of metadata", jpeg(segment(0xE1, 65533), sof(0xC0, 2, 3)), ".jpg", 3, 2),
+                arguments("WebP VP8X", webp(vp8x(1024, 768)), ".webp", 1024, 768),
+                arguments("WebP VP8L", webp(vp8l(300, 150)), ".webp", 300, 150),
+                arguments("WebP VP8", webp(vp8(500, 250)), ".webp", 500, 250));
+    }
+
+    static Stream<Arguments> oversized() {
+        return Stream.of(
+                arguments("PNG", png(Integer.MAX_VALUE, Integer.MAX_VALUE), Integer.MAX_VALUE, Integer.MAX_VALUE),
+                arguments("GIF", gif("GIF89a", 0xFFFF, 0xFFFF), 0xFFFF, 0xFFFF),
+                arguments("JPEG", jpeg(app0(), sof(0xC0, 0xFFFF, 0xFFFF)), 0xFFFF, 0xFFFF),
+                arguments("WebP VP8X", webp(vp8x(1 << 24, 1 << 24)), 1 << 24, 1 << 24),
+                arguments("WebP VP8L", webp(vp8l(1 << 14, 1 << 14)), 1 << 14, 1 << 14),
+                arguments("WebP VP8", webp(vp8(0x3FFF, 0x3FFF)), 0x3FFF, 0x3FFF));
+    }
+
+    static Stream<Arguments> truncated() {
+        byte[] png = png(640, 480);
+        byte[] jpeg = jpeg(app0(), sof(0xC0, 480, 640));
+        byte[] webp = webp(vp8x(1024, 768));
+        return Stream.of(
+                arguments("empty", new byte[0]),
+                arguments("shorter than any magic", bytes(0xFF, 0xD8, 0xFF)),
+                arguments("PNG signature only", Arrays.copyOf(png, 8)),
+                arguments("PNG inside IHDR", Arrays.copyOf(png, 20)),
+                arguments("GIF inside screen size", Arrays.copyOf(gif("GIF89a", 320, 200), 9)),
+                arguments("JPEG inside APP0", Arrays.copyOf(jpeg, 12)),
+                arguments("JPEG before frame marker", Arrays.copyOf(jpeg, 20)),
+                arguments("JPEG inside frame length", Arrays.copyOf(jpeg, 23)),
+                arguments("JPEG inside frame header", Arrays.copyOf(jpeg, 27)),
+                arguments("JPEG fill bytes to the end", jpeg(app0(), bytes(0xFF, 0xFF, 0xFF))),
+                arguments("WebP RIFF header only", Arrays.copyOf(webp, 12)),
+                arguments("WebP inside chunk", Arrays.copyOf(webp, webp.length - 1)));
+    }
+
+    static Stream<Arguments> malformed() {
+        return Stream.of(
+                arguments("BMP", concat(ascii("BM"), new byte[20])),
+                arguments("text", ascii("<svg xmlns='http://www.w3.org/2000/svg'/>")),
+                arguments("PNG without IHDR", concat(Arrays.copyOf(png(1, 1), 12), ascii("IDAT"), new byte[8])),
+                arguments("PNG zero width", png(0, 480)),
+                arguments("PNG negative height", png(640, -1)),
+                arguments("GIF unknown version", gif("GIF88a", 320, 200)),
+                arguments("GIF zero height", gif("GIF89a", 320, 0)),
+                arguments("JPEG garbage between segments", jpeg(app0(), bytes(0x00), sof(0xC0, 1, 1))),
+                arguments("JPEG scan before frame", jpeg(app0(), segment(0xDA, 10))),
+                arguments("JPEG end before frame", jpeg(app0(), bytes(0xFF, 0xD9), new byte[8])),
+                arguments("JPEG segment length below 2", jpeg(bytes(0xFF, 0xE0, 0x00, 0x01), new byte[10])),
+                arguments("JPEG zero width", jpeg(app0(), sof(0xC0, 480, 0))),
+                arguments("WebP unknown chunk", webp(concat(ascii("VP9 "), new byte[14]))),
+                arguments("WebP VP8L bad signature", webp(withByte(vp8l(300, 150), 8, 0x2E))),
+                arguments("WebP VP8 bad start code", webp(withByte(vp8(500, 250), 11, 0x9C))),
+                arguments("WebP VP8 zero size", webp(vp8(0, 250))));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("wellFormed")
+    void readsWellFormedHeaders(String name, byte[] image, String extension, int width, int height) throws IOException {
+        ImageHeader header = ImageHeader.read(new ByteArrayInputStream(image));
+        assertEquals(extension, header.extension());
+        assertEquals(width, header.width());
+        assertEquals(height, header.height());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("oversized")
+    void readsOversizedDimensionsAsDeclared(String name, byte[] image, int width, int height) throws IOException {
+        ImageHeader header = ImageHeader.read(new ByteArrayInputStream(image));
+        assertEquals(width, header.width());
+        assertEquals(height, header.height());
+        assertEquals((long) width * height, header.pixels());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("truncated")
+    void rejectsTruncatedHeaders(String name, byte[] image) {
+        assertThrows(EOFException.class, () -> ImageHeader.read(new ByteArrayInputStream(image)));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("malformed")
+    void rejectsMalformedHeaders(String name, byte[] image) {
+        IOException e = assertThrows(IOException.class, () -> ImageHeader.read(new ByteArrayInputStream(image)));
+        assertEquals(IOException.class, e.getClass(), e.toString());
+    }
+
+    private static byte[] png(int width, int height) {
+        return concat(bytes(0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 13), ascii("IHDR"),
+                s32be(width), s32be(height), bytes(8, 6, 0, 0, 0));
+    }
+
+    private static byte[] gif(String version, int width, int height) {
+        return concat(ascii(version), u16le(width), u16le(height), bytes(0, 0));
+    }
+
+    private static byte[] jpeg(byte[]... segments) {
+        return concat(bytes(0xFF, 0xD8), concat(segments));
+    }
+
+    private static byte[] app0() {
+        return concat(bytes(0xFF, 0xE0, 0x00, 0x10), ascii("JFIF"), new byte[10]);
+    }
+
+    // A segment whose payload is zeros; length counts itself
+    private static byte[] segment(int marker, int payload) {
+        return concat(bytes(0xFF, marker), u16be(payload + 2), new byte[payload]);
+    }
+
+    private static byte[] sof(int marker, int height, int width) {
+        return concat(bytes(0xFF, marker, 0x00, 0x11, 8), u16be(height), u16be(width), new byte[10]);
+    }
+
+    private static byte[] webp(byte[] chunk) {
+        return concat(ascii("RIFF"), s32le(chunk.length + 4), ascii("WEBP"), chunk);
+    }
+
+    private static byte[] vp8x(int width, int height) {
+        return concat(ascii("VP8X"), s32le(10), new byte[4], u24le(width - 1), u24le(height - 1));
+    }
+
+    private static byte[] vp8l(int width, int height) {
+        return concat(ascii("VP8L"), s32le(10), bytes(0x2F), s32le((width - 1) | (height - 1) << 14), new byte[5]);
+    }
+
+    private static byte[] vp8(int width, int height) {
+        return concat(ascii("VP8 "), s32le(10), new byte[3], bytes(0x9D, 0x01, 0x2A), u16le(width), u16le(height));
+    }
+
+    private static byte[] withByte(byte[] bytes, int index, int value) {
+        byte[] copy = bytes.clone();
+        copy[index] = (byte) value;
+        return copy;
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] u16be(int value) {
+        return bytes(value >> 8, value);
+    }
+
+    private static byte[] u16le(int value) {
+        return bytes(value, value >> 8);
+    }
+
+    private static byte[] u24le(int value) {
+        return bytes(value, value >> 8, value >> 16);
+    }
+
+    private static byte[] s32be(int value) {
+        return bytes(value >> 24, value >> 16, value >> 8, value);
+    }
+
+    private static byte[] s32le(int value) {
+        return bytes(value, value >> 8, value >> 16, value >> 24);
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+}